@@ -0,0 +1,25 @@
+package marketplace.orderservice.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Readiness gate for token verification. The instance stays out of service until the JWK set has been
+ * loaded once, and stays UP on the last good keys when a later refresh fails.
+ */
+@Component
+@RequiredArgsConstructor
+public class JwkSetHealthIndicator implements HealthIndicator {
+
+    private final JwkSetManager jwkSetManager;
+
+    @Override
+    public Health health() {
+        if (!jwkSetManager.isReady()) {
+            return Health.outOfService().withDetail("jwks", "not loaded").build();
+        }
+        return Health.up().withDetail("lastRefresh", jwkSetManager.getLastRefresh()).build();
+    }
+}
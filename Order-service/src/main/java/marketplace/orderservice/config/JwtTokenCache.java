@@ -0,0 +1,71 @@
+package marketplace.orderservice.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.function.Function;
+
+/**
+ * Bounded cache keyed by the SHA-256 of a bearer token. An entry lives for at most {@code maxTtl}
+ * and never past the expiry of its token. Hits and misses are published as cache.gets meters.
+ */
+public final class JwtTokenCache<V> {
+
+    private final Cache<String, V> cache;
+
+    public JwtTokenCache(String name, MeterRegistry meterRegistry, long maximumSize, Duration maxTtl,
+                         Function<V, Instant> expiresAt) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, V>() {
+                    @Override
+                    public long expireAfterCreate(String key, V value, long currentTime) {
+                        Instant tokenExpiry = expiresAt.apply(value);
+                        if (tokenExpiry == null) {
+                            return maxTtl.toNanos();
+                        }
+                        Duration untilExpiry = Duration.between(Instant.now(), tokenExpiry);
+                        return Math.max(0, Math.min(maxTtl.toNanos(), untilExpiry.toNanos()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, V value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, V value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    }
+
+    /**
+     * Returns the cached value for the token, computing it on a miss. Exceptions thrown by the loader
+     * (an invalid token, for instance) are not cached.
+     */
+    public V get(String token, Function<String, V> loader) {
+        return cache.get(hash(token), key -> loader.apply(token));
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
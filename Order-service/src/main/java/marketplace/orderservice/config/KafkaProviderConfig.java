@@ -34,6 +34,7 @@ public class KafkaProviderConfig {
         properties.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true); // Prevent duplicate messages
         properties.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, 120000); // 2 minutes timeout
         properties.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, 30000); // 30 seconds request timeout
+        properties.put(ProducerConfig.LINGER_MS_CONFIG, 5); // Let the outbox relay batches share requests
 
         return properties;
     }
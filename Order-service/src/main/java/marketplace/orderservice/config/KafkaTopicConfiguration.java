@@ -30,4 +30,13 @@ public class KafkaTopicConfiguration {
                 .configs(configs)
                 .build();
     }
+
+    @Bean
+    public NewTopic stockReleaseTopic() {
+        return TopicBuilder.name(KafkaTopics.STOCK_RELEASE)
+                .partitions(2)
+                .replicas(2)
+                .config(TopicConfig.RETENTION_MS_CONFIG, TimeUnit.DAYS.toMillis(7) + "")
+                .build();
+    }
 }
@@ -5,5 +5,8 @@ public final class KafkaTopics {
     private KafkaTopics() {
     }
     public static final String ORDER_CREATED = "order-generated";
+    public static final String PRODUCT_CATALOG = "product-catalog";
+    // Keyed by reservation ID, read by product-service to give back the stock of orders that were not created
+    public static final String STOCK_RELEASE = "stock-release";
 
 }
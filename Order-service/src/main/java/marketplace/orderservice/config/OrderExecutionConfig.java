@@ -0,0 +1,22 @@
+package marketplace.orderservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class OrderExecutionConfig {
+
+    /**
+     * Bounded pool used by the reactive order pipeline for blocking JPA work.
+     * Keep the thread cap at or below the Hikari pool size so tasks queue here instead of on the pool.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler orderPersistenceScheduler(
+            @Value("${order.create.persistence-threads:10}") int threads,
+            @Value("${order.create.persistence-queue-capacity:1000}") int queueCapacity) {
+        return Schedulers.newBoundedElastic(threads, queueCapacity, "order-persistence");
+    }
+}
@@ -0,0 +1,47 @@
+package marketplace.orderservice.config;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class ProductCatalogConsumerConfig {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers = "localhost:9092";
+
+    public Map<String, Object> catalogConsumerConfig() {
+        Map<String, Object> properties = new HashMap<>();
+
+        properties.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        properties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        properties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        // Every instance rebuilds the whole catalog, so nothing is committed and reading starts at the beginning
+        properties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        properties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 1000);
+
+        return properties;
+    }
+
+    /**
+     * Batch container for the product catalog replica. The idle event tells the replica it has
+     * read everything that was in the topic.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> productCatalogListenerContainerFactory(
+            @Value("${order.product-catalog.idle-event-interval-ms:1000}") long idleEventIntervalMs) {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(catalogConsumerConfig()));
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setIdleEventInterval(idleEventIntervalMs);
+        return factory;
+    }
+}
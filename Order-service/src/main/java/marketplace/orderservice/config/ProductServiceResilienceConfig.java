@@ -0,0 +1,79 @@
+package marketplace.orderservice.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker and bulkhead guarding calls from order-service to product-service. Their state,
+ * call outcomes and free permits are published under the resilience4j.* meters.
+ */
+@Configuration
+public class ProductServiceResilienceConfig {
+
+    public static final String PRODUCT_SERVICE = "product-service";
+
+    @Bean
+    public CircuitBreaker productServiceCircuitBreaker(
+            MeterRegistry meterRegistry,
+            @Value("${order.product-client.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${order.product-client.circuit-breaker.slow-call-threshold-ms:2000}") long slowCallThresholdMs,
+            @Value("${order.product-client.circuit-breaker.slow-call-rate-threshold:80}") float slowCallRateThreshold,
+            @Value("${order.product-client.circuit-breaker.sliding-window-size:50}") int slidingWindowSize,
+            @Value("${order.product-client.circuit-breaker.minimum-calls:20}") int minimumCalls,
+            @Value("${order.product-client.circuit-breaker.open-duration-ms:10000}") long openDurationMs,
+            @Value("${order.product-client.circuit-breaker.half-open-calls:5}") int halfOpenCalls) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(Duration.ofMillis(slowCallThresholdMs))
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .waitDurationInOpenState(Duration.ofMillis(openDurationMs))
+                // After the open period a few probe calls decide whether to close again or reopen
+                .permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                // 4xx answers (unknown product, insufficient stock) mean product-service is healthy
+                .recordException(e -> !(e instanceof WebClientResponseException response
+                        && response.getStatusCode().is4xxClientError()))
+                // The breaker wraps the bulkhead, so a full bulkhead is local load, not a product-service failure
+                .ignoreExceptions(BulkheadFullException.class)
+                .build();
+
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry.circuitBreaker(PRODUCT_SERVICE);
+    }
+
+    /**
+     * Caps concurrent calls to product-service. Calls beyond the cap fail at once rather than
+     * queueing behind a slow instance.
+     */
+    @Bean
+    public Bulkhead productServiceBulkhead(
+            MeterRegistry meterRegistry,
+            @Value("${order.product-client.bulkhead.max-concurrent-calls:50}") int maxConcurrentCalls,
+            @Value("${order.product-client.bulkhead.max-wait-ms:0}") long maxWaitMs) {
+        BulkheadConfig config = BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ofMillis(maxWaitMs))
+                .build();
+
+        BulkheadRegistry registry = BulkheadRegistry.of(config);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry.bulkhead(PRODUCT_SERVICE);
+    }
+}
@@ -1,15 +1,62 @@
 package marketplace.orderservice.config;
 
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
+
+    /**
+     * Connection pool shared by every downstream call. Limits apply per remote host, and the pool
+     * publishes its total, active, idle and pending counts as reactor.netty.connection.provider.* meters.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider downstreamConnectionProvider(
+            @Value("${order.http-client.max-connections:100}") int maxConnections,
+            @Value("${order.http-client.pending-acquire-max-count:500}") int pendingAcquireMaxCount,
+            @Value("${order.http-client.pending-acquire-timeout-ms:2000}") long pendingAcquireTimeoutMs,
+            @Value("${order.http-client.max-idle-time-ms:30000}") long maxIdleTimeMs,
+            @Value("${order.http-client.max-life-time-ms:300000}") long maxLifeTimeMs,
+            @Value("${order.http-client.evict-interval-ms:30000}") long evictIntervalMs) {
+        return ConnectionProvider.builder("downstream")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                // Idle connections are closed before a load balancer or the server drops them silently
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+                // A bounded lifetime lets traffic spread to instances that registered after the pool filled up
+                .maxLifeTime(Duration.ofMillis(maxLifeTimeMs))
+                .evictInBackground(Duration.ofMillis(evictIntervalMs))
+                .metrics(true)
+                .build();
+    }
+
     @Bean
     @LoadBalanced
-    public WebClient.Builder webClientBuilder() {
-        return WebClient.builder();
+    public WebClient.Builder webClientBuilder(
+            ConnectionProvider downstreamConnectionProvider,
+            @Value("${order.http-client.connect-timeout-ms:2000}") int connectTimeoutMs,
+            @Value("${order.http-client.tcp-keepalive:true}") boolean tcpKeepAlive,
+            @Value("${order.http-client.http2-enabled:false}") boolean http2Enabled) {
+        HttpClient httpClient = HttpClient.create(downstreamConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .option(ChannelOption.SO_KEEPALIVE, tcpKeepAlive)
+                // Cleartext HTTP/2 multiplexes requests over fewer connections, HTTP/1.1 stays as fallback
+                .protocol(http2Enabled
+                        ? new HttpProtocol[] {HttpProtocol.H2C, HttpProtocol.HTTP11}
+                        : new HttpProtocol[] {HttpProtocol.HTTP11});
+
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient));
     }
 }
@@ -11,20 +11,36 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import marketplace.orderservice.dto.ApiResponseDTO;
+import marketplace.orderservice.dto.BulkCreateOrderDto;
+import marketplace.orderservice.dto.BulkOrderResponseDto;
 import marketplace.orderservice.dto.CreateOrderDto;
+import marketplace.orderservice.dto.IdempotentOrderResult;
+import marketplace.orderservice.dto.OrderPageDto;
 import marketplace.orderservice.dto.OrderResponseDto;
 import marketplace.orderservice.entity.Order;
+import marketplace.orderservice.entity.OrderStaus;
+import marketplace.orderservice.exception.ValidationException;
 import marketplace.orderservice.mapper.OrderMapper;
+import marketplace.orderservice.service.OrderExportService;
+import marketplace.orderservice.service.OrderIdempotencyService;
 import marketplace.orderservice.service.OrderService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
 
-import java.util.List;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/v1/orders")
@@ -33,16 +49,26 @@ import java.util.UUID;
 public class OrderController {
     private final OrderService orderService;
     private final OrderMapper orderMapper;
+    private final OrderExportService orderExportService;
+    private final OrderIdempotencyService orderIdempotencyService;
+    private final boolean reactiveCreation;
 
-    public OrderController(OrderService orderService, OrderMapper orderMapper) {
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
+    public OrderController(OrderService orderService, OrderMapper orderMapper, OrderExportService orderExportService,
+                           OrderIdempotencyService orderIdempotencyService,
+                           @Value("${order.create.reactive-enabled:false}") boolean reactiveCreation) {
         this.orderService = orderService;
         this.orderMapper = orderMapper;
+        this.orderExportService = orderExportService;
+        this.orderIdempotencyService = orderIdempotencyService;
+        this.reactiveCreation = reactiveCreation;
     }
 
     @PostMapping()
     @Operation(
         summary = "Create a new order",
-        description = "Creates a new order for the authenticated user with the specified items. The system will validate product availability and calculate the total amount."
+        description = "Creates a new order for the authenticated user with the specified items. The system will validate product availability and calculate the total amount. Send an Idempotency-Key header to retry safely: a repeated key returns the original order with the Idempotent-Replayed header set to true."
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -112,6 +138,23 @@ public class OrderController {
                 )
             )
         ),
+        @ApiResponse(
+            responseCode = "422",
+            description = "Idempotency-Key reused with a different request body",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    name = "Idempotency key mismatch",
+                    value = """
+                    {
+                        "success": false,
+                        "message": "Idempotency-Key 'c0a8012e-checkout-42' was already used with a different request body",
+                        "data": null
+                    }
+                    """
+                )
+            )
+        ),
         @ApiResponse(
             responseCode = "404",
             description = "Product not found",
@@ -130,7 +173,7 @@ public class OrderController {
             )
         )
     })
-    public ResponseEntity<ApiResponseDTO<OrderResponseDto>> createOrder(
+    public Mono<ResponseEntity<ApiResponseDTO<OrderResponseDto>>> createOrder(
             @Parameter(
                 description = "Order creation data containing list of items to order",
                 required = true,
@@ -155,10 +198,29 @@ public class OrderController {
                 )
             )
             @Valid @RequestBody CreateOrderDto orderDto,
+            @Parameter(description = "Client-generated key that makes retries of this request return the same order")
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt) {
         UUID userId = UUID.fromString(jwt.getSubject());
-        ApiResponseDTO<Order> response = orderService.createOrder(orderDto, userId);
 
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            return orderIdempotencyService.createOrder(orderDto, userId, idempotencyKey, record -> reactiveCreation
+                            ? orderService.createOrderReactive(orderDto, userId, jwt.getTokenValue(), record)
+                                    .map(ApiResponseDTO::data)
+                            : Mono.fromCallable(() -> orderService.createOrder(orderDto, userId, record).data()))
+                    .map(this::toIdempotentResponse);
+        }
+
+        if (reactiveCreation) {
+            // The servlet thread is released here; the response is written once the pipeline completes
+            return orderService.createOrderReactive(orderDto, userId, jwt.getTokenValue())
+                    .map(this::toCreatedResponse);
+        }
+
+        return Mono.just(toCreatedResponse(orderService.createOrder(orderDto, userId)));
+    }
+
+    private ResponseEntity<ApiResponseDTO<OrderResponseDto>> toCreatedResponse(ApiResponseDTO<Order> response) {
         // Convert the Order entity to OrderResponseDto to avoid circular reference
         OrderResponseDto orderResponse = orderMapper.toOrderResponseDto(response.data());
 
@@ -172,11 +234,121 @@ public class OrderController {
         return ResponseEntity.status(HttpStatus.CREATED).body(apiResponse);
     }
 
+    private ResponseEntity<ApiResponseDTO<OrderResponseDto>> toIdempotentResponse(IdempotentOrderResult result) {
+        ApiResponseDTO<OrderResponseDto> apiResponse = ApiResponseDTO.<OrderResponseDto>builder()
+                .success(true)
+                .message(result.replayed() ? "Order already created for this Idempotency-Key" : "Order created successfully")
+                .data(result.order())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header("Idempotent-Replayed", String.valueOf(result.replayed()))
+                .body(apiResponse);
+    }
+
+    @PostMapping("/bulk")
+    @Operation(
+        summary = "Create several orders at once",
+        description = "Creates up to 500 orders for the authenticated user in one request. Products of all orders are validated with a single lookup and the valid orders are saved together. Each order is reported as created or rejected, in request order."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Bulk request processed, see the per-order results",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponseDTO.class),
+                examples = @ExampleObject(
+                    name = "Partially successful bulk creation",
+                    value = """
+                    {
+                        "success": true,
+                        "message": "Created 1 of 2 orders",
+                        "data": {
+                            "created": 1,
+                            "failed": 1,
+                            "results": [
+                                {
+                                    "index": 0,
+                                    "success": true,
+                                    "order": {
+                                        "id": "123e4567-e89b-12d3-a456-426614174000",
+                                        "buyerId": "456e7890-e89b-12d3-a456-426614174001",
+                                        "status": "PENDING",
+                                        "totalAmount": 299.99,
+                                        "createdAt": "2024-01-15T10:30:00",
+                                        "updatedAt": "2024-01-15T10:30:00",
+                                        "items": [
+                                            {
+                                                "productName": "Laptop",
+                                                "productPrice": 299.99,
+                                                "quantity": 1,
+                                                "totalPrice": 299.99
+                                            }
+                                        ]
+                                    },
+                                    "error": null
+                                },
+                                {
+                                    "index": 1,
+                                    "success": false,
+                                    "order": null,
+                                    "error": "Product with ID 789e0123-e89b-12d3-a456-426614174002 is not available"
+                                }
+                            ]
+                        }
+                    }
+                    """
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid bulk request",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    name = "Validation error",
+                    value = """
+                    {
+                        "success": false,
+                        "message": "Validation failed",
+                        "data": null
+                    }
+                    """
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Authentication required",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    name = "Authentication error",
+                    value = """
+                    {
+                        "success": false,
+                        "message": "Authentication token is missing or invalid",
+                        "data": null
+                    }
+                    """
+                )
+            )
+        )
+    })
+    public ResponseEntity<ApiResponseDTO<BulkOrderResponseDto>> createOrders(
+            @Valid @RequestBody BulkCreateOrderDto bulkDto,
+            @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt) {
+        UUID userId = UUID.fromString(jwt.getSubject());
+        return ResponseEntity.ok(orderService.createOrders(bulkDto, userId));
+    }
+
     @PreAuthorize("hasRole('admin_client_role') or hasRole('buyer_client_role')")
     @GetMapping("/me")
     @Operation(
         summary = "Get my orders",
-        description = "Retrieves all orders for the authenticated user. Accessible by buyers and admins."
+        description = "Retrieves the orders of the authenticated user, newest first, one page at a time. Pass the returned 'nextCursor' to get the next page. Accessible by buyers and admins."
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -191,17 +363,21 @@ public class OrderController {
                     {
                         "success": true,
                         "message": "Orders retrieved successfully",
-                        "data": [
-                            {
-                                "id": "123e4567-e89b-12d3-a456-426614174000",
-                                "buyerId": "456e7890-e89b-12d3-a456-426614174001",
-                                "status": "PENDING",
-                                "totalAmount": 299.98,
-                                "createdAt": "2024-01-15T10:30:00",
-                                "updatedAt": "2024-01-15T10:30:00",
-                                "items": []
-                            }
-                        ]
+                        "data": {
+                            "items": [
+                                {
+                                    "id": "123e4567-e89b-12d3-a456-426614174000",
+                                    "buyerId": "456e7890-e89b-12d3-a456-426614174001",
+                                    "status": "PENDING",
+                                    "totalAmount": 299.98,
+                                    "createdAt": "2024-01-15T10:30:00",
+                                    "updatedAt": "2024-01-15T10:30:00",
+                                    "items": []
+                                }
+                            ],
+                            "nextCursor": "MjAyNC0wMS0xNVQxMDozMHwxMjNlNDU2Ny1lODliLTEyZDMtYTQ1Ni00MjY2MTQxNzQwMDA",
+                            "hasMore": true
+                        }
                     }
                     """
                 )
@@ -233,10 +409,14 @@ public class OrderController {
             )
         )
     })
-    public ResponseEntity<ApiResponseDTO<List<Order>>> getMyOrders(
+    public ResponseEntity<ApiResponseDTO<OrderPageDto>> getMyOrders(
+            @Parameter(description = "Cursor returned as 'nextCursor' by the previous page, omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Number of orders per page, capped by the server", example = "20")
+            @RequestParam(required = false) Integer size,
             @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt) {
         UUID userId = UUID.fromString(jwt.getSubject());
-        ApiResponseDTO<List<Order>> response = orderService.getMyOrders(userId);
+        ApiResponseDTO<OrderPageDto> response = orderService.getMyOrders(userId, cursor, size);
         return ResponseEntity.ok(response);
     }
 
@@ -244,7 +424,7 @@ public class OrderController {
     @GetMapping("/admin/all")
     @Operation(
         summary = "Get all orders (Admin only)",
-        description = "Retrieves all orders in the system. This endpoint is restricted to administrators only."
+        description = "Retrieves all orders in the system, newest first, one page at a time. Pass the returned 'nextCursor' to get the next page. This endpoint is restricted to administrators only."
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -259,17 +439,21 @@ public class OrderController {
                     {
                         "success": true,
                         "message": "Orders retrieved successfully",
-                        "data": [
-                            {
-                                "id": "123e4567-e89b-12d3-a456-426614174000",
-                                "buyerId": "456e7890-e89b-12d3-a456-426614174001",
-                                "status": "PENDING",
-                                "totalAmount": 299.98,
-                                "createdAt": "2024-01-15T10:30:00",
-                                "updatedAt": "2024-01-15T10:30:00",
-                                "items": []
-                            }
-                        ]
+                        "data": {
+                            "items": [
+                                {
+                                    "id": "123e4567-e89b-12d3-a456-426614174000",
+                                    "buyerId": "456e7890-e89b-12d3-a456-426614174001",
+                                    "status": "PENDING",
+                                    "totalAmount": 299.98,
+                                    "createdAt": "2024-01-15T10:30:00",
+                                    "updatedAt": "2024-01-15T10:30:00",
+                                    "items": []
+                                }
+                            ],
+                            "nextCursor": "MjAyNC0wMS0xNVQxMDozMHwxMjNlNDU2Ny1lODliLTEyZDMtYTQ1Ni00MjY2MTQxNzQwMDA",
+                            "hasMore": true
+                        }
                     }
                     """
                 )
@@ -288,11 +472,76 @@ public class OrderController {
             description = "No orders found in the system"
         )
     })
-    public ResponseEntity<?> getAllOrders() {
-        ApiResponseDTO<List<Order>> response = orderService.getAllOrders();
+    public ResponseEntity<ApiResponseDTO<OrderPageDto>> getAllOrders(
+            @Parameter(description = "Cursor returned as 'nextCursor' by the previous page, omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Number of orders per page, capped by the server", example = "20")
+            @RequestParam(required = false) Integer size) {
+        ApiResponseDTO<OrderPageDto> response = orderService.getAllOrders(cursor, size);
         return ResponseEntity.ok(response);
     }
 
+    @PreAuthorize("hasRole('admin_client_role')")
+    @GetMapping(value = "/admin/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+        summary = "Export orders as NDJSON (Admin only)",
+        description = "Streams every matching order as one JSON document per line, oldest first. Memory usage does not grow with the number of orders. This endpoint is restricted to administrators only."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Orders streamed successfully",
+            content = @Content(
+                mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                examples = @ExampleObject(
+                    name = "Exported orders",
+                    value = """
+                    {"id":"123e4567-e89b-12d3-a456-426614174000","buyerId":"456e7890-e89b-12d3-a456-426614174001","status":"PENDING","totalAmount":299.98,"createdAt":"2024-01-15T10:30:00","updatedAt":"2024-01-15T10:30:00","items":[]}
+                    {"id":"223e4567-e89b-12d3-a456-426614174000","buyerId":"456e7890-e89b-12d3-a456-426614174001","status":"COMPLETED","totalAmount":99.99,"createdAt":"2024-01-16T08:00:00","updatedAt":"2024-01-16T08:05:00","items":[]}
+                    """
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Authentication required"
+        ),
+        @ApiResponse(
+            responseCode = "403",
+            description = "Insufficient permissions - admin role required"
+        )
+    })
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @Parameter(description = "Only export orders with this status", example = "PENDING")
+            @RequestParam(required = false) OrderStaus status,
+            @Parameter(description = "Only export orders created at or after this instant", example = "2024-01-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Only export orders created before this instant", example = "2024-02-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Compress the stream with gzip")
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        // Validate before streaming starts, once the body is being written the status can no longer change
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new ValidationException("'from' must be before 'to'");
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            OutputStream target = gzip ? new GZIPOutputStream(outputStream, EXPORT_BUFFER_SIZE) : outputStream;
+            orderExportService.exportOrders(status, from, to, target);
+            if (target instanceof GZIPOutputStream gzipStream) {
+                gzipStream.finish();
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders.ndjson\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
     @PreAuthorize("hasRole('admin_client_role') or hasRole('buyer_client_role')")
     @GetMapping("/{orderId}")
     @Operation(
@@ -359,7 +608,7 @@ public class OrderController {
             )
         )
     })
-    public ResponseEntity<ApiResponseDTO<Order>> getOrderById(
+    public ResponseEntity<ApiResponseDTO<OrderResponseDto>> getOrderById(
             @Parameter(
                 description = "The unique identifier of the order to retrieve",
                 required = true,
@@ -368,7 +617,7 @@ public class OrderController {
             @PathVariable UUID orderId,
             @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt) {
         UUID userId = UUID.fromString(jwt.getSubject());
-        ApiResponseDTO<Order> response = orderService.getOrderById(orderId, userId);
+        ApiResponseDTO<OrderResponseDto> response = orderService.getOrderById(orderId, userId);
         return ResponseEntity.ok(response);
     }
 
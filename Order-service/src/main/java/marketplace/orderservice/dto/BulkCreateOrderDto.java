@@ -0,0 +1,22 @@
+package marketplace.orderservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(description = "Data transfer object for creating several orders in one request")
+public record BulkCreateOrderDto(
+        @Schema(
+            description = "Orders to create, each with its own list of items",
+            required = true,
+            example = "[{\"items\": [{\"productId\": \"123e4567-e89b-12d3-a456-426614174000\", \"quantity\": 2}]}]"
+        )
+        @NotEmpty(message = "Bulk request must contain at least one order")
+        @Size(max = 500, message = "A maximum of 500 orders can be created at once")
+        @Valid
+        List<CreateOrderDto> orders
+) {
+}
@@ -0,0 +1,20 @@
+package marketplace.orderservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+
+import java.util.List;
+
+@Schema(description = "Per-order results of a bulk creation request")
+@Builder
+public record BulkOrderResponseDto(
+        @Schema(description = "Number of orders created", example = "2")
+        int created,
+
+        @Schema(description = "Number of orders rejected", example = "1")
+        int failed,
+
+        @Schema(description = "One result per requested order, in request order")
+        List<BulkOrderResultDto> results
+) {
+}
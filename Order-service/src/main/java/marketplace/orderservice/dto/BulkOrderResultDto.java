@@ -0,0 +1,22 @@
+package marketplace.orderservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+
+@Schema(description = "Outcome of one order in a bulk creation request")
+@Builder
+public record BulkOrderResultDto(
+        @Schema(description = "Position of the order in the request, starting at 0", example = "0")
+        int index,
+
+        @Schema(description = "Whether the order was created", example = "true")
+        boolean success,
+
+        @Schema(description = "The created order, null when it failed")
+        OrderResponseDto order,
+
+        @Schema(description = "Why the order was not created, null when it succeeded",
+                example = "Product with ID 123e4567-e89b-12d3-a456-426614174000 is not available")
+        String error
+) {
+}
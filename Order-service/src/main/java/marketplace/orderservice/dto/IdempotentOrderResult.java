@@ -0,0 +1,12 @@
+package marketplace.orderservice.dto;
+
+/**
+ * Outcome of an order creation guarded by an Idempotency-Key.
+ *
+ * @param replayed true when the order was created by an earlier request with the same key
+ */
+public record IdempotentOrderResult(
+        OrderResponseDto order,
+        boolean replayed
+) {
+}
@@ -0,0 +1,13 @@
+package marketplace.orderservice.dto;
+
+import java.util.UUID;
+
+public record InsufficientStockResponseDto(
+        String error,
+        String message,
+        UUID productId,
+        String productName,
+        Integer requested,
+        Integer available
+) {
+}
@@ -0,0 +1,18 @@
+package marketplace.orderservice.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Flat projection of an order item together with the ID of its order, used to load
+ * the items of a whole page of orders in a single query.
+ */
+public record OrderItemRow(
+        UUID orderId,
+        UUID id,
+        String productName,
+        BigDecimal productPrice,
+        Integer quantity,
+        BigDecimal totalPrice
+) {
+}
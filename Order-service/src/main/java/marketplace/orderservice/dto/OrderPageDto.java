@@ -0,0 +1,23 @@
+package marketplace.orderservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+
+import java.util.List;
+
+@Schema(description = "A page of orders with the cursor to request the next one")
+@Builder
+public record OrderPageDto(
+        @Schema(description = "Orders in this page, newest first")
+        List<OrderResponseDto> items,
+
+        @Schema(
+            description = "Opaque cursor to pass as 'cursor' to get the next page, null when there are no more orders",
+            example = "MjAyNC0wMS0xNVQxMDozMHwxMjNlNDU2Ny1lODliLTEyZDMtYTQ1Ni00MjY2MTQxNzQwMDA"
+        )
+        String nextCursor,
+
+        @Schema(description = "Whether more orders are available after this page", example = "true")
+        boolean hasMore
+) {
+}
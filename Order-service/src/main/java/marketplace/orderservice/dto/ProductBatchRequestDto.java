@@ -0,0 +1,9 @@
+package marketplace.orderservice.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public record ProductBatchRequestDto(
+        List<UUID> ids
+) {
+}
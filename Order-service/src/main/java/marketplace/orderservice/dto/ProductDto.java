@@ -9,6 +9,7 @@ public record ProductDto(
         String name,
         String description,
         BigDecimal price,
+        Integer quantity,
         String imageUrl,
         String category,
         UUID sellerId,
@@ -0,0 +1,8 @@
+package marketplace.orderservice.dto;
+
+import java.util.UUID;
+
+public record StockReleaseEventDto(
+        UUID reservationId
+) {
+}
@@ -0,0 +1,10 @@
+package marketplace.orderservice.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public record StockReservationRequestDto(
+        UUID reservationId,
+        List<OrderItemDto> items
+) {
+}
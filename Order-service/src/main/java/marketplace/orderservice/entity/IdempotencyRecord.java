@@ -0,0 +1,46 @@
+package marketplace.orderservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Links an Idempotency-Key sent by a buyer to the order it created. Written in the same
+ * transaction as the order, the unique constraint guarantees one order per key across instances.
+ */
+@Entity
+@Table(name = "idempotency_records",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_records_buyer_key",
+                columnNames = {"buyer_id", "idempotency_key"}),
+        indexes = @Index(name = "idx_idempotency_records_created_at", columnList = "created_at"))
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class IdempotencyRecord {
+    @Id
+    @TimeOrderedUuid
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID buyerId;
+
+    @Column(nullable = false)
+    private String idempotencyKey;
+
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(nullable = false)
+    private UUID orderId;
+
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
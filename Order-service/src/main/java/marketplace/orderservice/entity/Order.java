@@ -11,7 +11,10 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_buyer_created_id", columnList = "buyer_id, created_at, id"),
+        @Index(name = "idx_orders_created_id", columnList = "created_at, id")
+})
 @Getter
 @Setter
 @AllArgsConstructor
@@ -19,7 +22,7 @@ import java.util.UUID;
 @Builder
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
 
     private UUID buyerId;
@@ -0,0 +1,58 @@
+package marketplace.orderservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Event waiting to be relayed to Kafka. Rows are written in the same transaction
+ * as the aggregate they describe and marked as sent once the broker acknowledges them.
+ * The relay leaves a row alone until its availableAt has passed.
+ */
+@Entity
+@Table(name = "order_outbox", indexes = {
+        @Index(name = "idx_order_outbox_sent_at_available_at", columnList = "sent_at, available_at"),
+        @Index(name = "idx_order_outbox_aggregate_id", columnList = "aggregate_id")
+})
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OutboxEvent {
+    @Id
+    @TimeOrderedUuid
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID aggregateId;
+
+    @Column(nullable = false)
+    private String topic;
+
+    @Column(nullable = false)
+    private String eventKey;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Builder.Default
+    private int attempts = 0;
+
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime availableAt;
+
+    private LocalDateTime sentAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+        if (this.availableAt == null) {
+            this.availableAt = this.createdAt;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package marketplace.orderservice.exception;
+
+public class DuplicateIdempotencyKeyException extends OrderException {
+    public DuplicateIdempotencyKeyException(String idempotencyKey) {
+        super("An order was already created with Idempotency-Key: " + idempotencyKey);
+    }
+}
@@ -3,6 +3,7 @@ package marketplace.orderservice.exception;
 import lombok.extern.slf4j.Slf4j;
 import marketplace.orderservice.dto.ApiResponseDTO;
 import marketplace.orderservice.dto.AuthErrorResponseDto;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -41,6 +42,27 @@ public class GlobalExceptionHandler {
                         .build());
     }
 
+    @ExceptionHandler(ProductServiceUnavailableException.class)
+    public ResponseEntity<ApiResponseDTO<Object>> handleProductServiceUnavailable(ProductServiceUnavailableException ex) {
+        log.warn("Product service unavailable: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000)))
+                .body(ApiResponseDTO.builder()
+                        .success(false)
+                        .message(ex.getMessage())
+                        .build());
+    }
+
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<ApiResponseDTO<Object>> handleIdempotencyKeyMismatch(IdempotencyKeyMismatchException ex) {
+        log.error("Idempotency key reused: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(ApiResponseDTO.builder()
+                        .success(false)
+                        .message(ex.getMessage())
+                        .build());
+    }
+
     @ExceptionHandler(JwtExpiredException.class)
     public ResponseEntity<AuthErrorResponseDto> handleJwtExpired(JwtExpiredException ex) {
         log.error("JWT token expired: {}", ex.getMessage());
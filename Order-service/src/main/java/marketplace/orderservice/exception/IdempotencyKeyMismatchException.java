@@ -0,0 +1,7 @@
+package marketplace.orderservice.exception;
+
+public class IdempotencyKeyMismatchException extends OrderException {
+    public IdempotencyKeyMismatchException(String idempotencyKey) {
+        super("Idempotency-Key '" + idempotencyKey + "' was already used with a different request body");
+    }
+}
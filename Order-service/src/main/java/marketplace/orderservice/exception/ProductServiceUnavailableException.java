@@ -0,0 +1,28 @@
+package marketplace.orderservice.exception;
+
+import java.time.Duration;
+
+/**
+ * Product information cannot be obtained right now for reasons on our side, such as an open circuit
+ * breaker, a full bulkhead, an exhausted timeout budget or a catalog replica that is still loading.
+ * Answered with 503 and a Retry-After header, since the same request may well succeed later.
+ */
+public class ProductServiceUnavailableException extends OrderException {
+
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final Duration retryAfter;
+
+    public ProductServiceUnavailableException(String message) {
+        this(message, DEFAULT_RETRY_AFTER);
+    }
+
+    public ProductServiceUnavailableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -1,6 +1,7 @@
 package marketplace.orderservice.mapper;
 
 import marketplace.orderservice.dto.OrderItemResponseDto;
+import marketplace.orderservice.dto.OrderItemRow;
 import marketplace.orderservice.dto.OrderResponseDto;
 import marketplace.orderservice.entity.Order;
 import marketplace.orderservice.entity.OrderItem;
@@ -23,6 +24,17 @@ public class OrderMapper {
                 .collect(Collectors.toList())
             : List.of();
 
+        return toOrderResponseDto(order, itemDtos);
+    }
+
+    /**
+     * Maps an order using items that were loaded separately, without touching its lazy item collection.
+     */
+    public OrderResponseDto toOrderResponseDto(Order order, List<OrderItemResponseDto> itemDtos) {
+        if (order == null) {
+            return null;
+        }
+
         return OrderResponseDto.builder()
                 .id(order.getId())
                 .buyerId(order.getBuyerId())
@@ -47,4 +59,18 @@ public class OrderMapper {
                 .totalPrice(item.getTotalPrice())
                 .build();
     }
+
+    public OrderItemResponseDto toOrderItemResponseDto(OrderItemRow row) {
+        if (row == null) {
+            return null;
+        }
+
+        return OrderItemResponseDto.builder()
+                .id(row.id())
+                .productName(row.productName())
+                .productPrice(row.productPrice())
+                .quantity(row.quantity())
+                .totalPrice(row.totalPrice())
+                .build();
+    }
 }
@@ -0,0 +1,24 @@
+package marketplace.orderservice.repository;
+
+import marketplace.orderservice.dto.OrderItemRow;
+import marketplace.orderservice.entity.OrderItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OrderItemRepository extends JpaRepository<OrderItem, UUID> {
+
+    @Query("""
+            SELECT new marketplace.orderservice.dto.OrderItemRow(
+                i.order.id, i.id, i.productName, i.productPrice, i.quantity, i.totalPrice)
+            FROM OrderItem i
+            WHERE i.order.id IN :orderIds
+            """)
+    List<OrderItemRow> findRowsByOrderIdIn(@Param("orderIds") Collection<UUID> orderIds);
+}
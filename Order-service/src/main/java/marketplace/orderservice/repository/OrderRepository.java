@@ -1,17 +1,48 @@
 package marketplace.orderservice.repository;
 
 import marketplace.orderservice.entity.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, UUID> {
-    List<Order> findByBuyerId(UUID buyerId);
-
     Optional<Order> findByIdAndBuyerId(UUID id, UUID buyerId);
 
+    @EntityGraph(attributePaths = "items")
+    Optional<Order> findWithItemsByIdAndBuyerId(UUID id, UUID buyerId);
+
+    // Keyset pagination on (createdAt, id): backed by idx_orders_buyer_created_id / idx_orders_created_id,
+    // so every page is an index range scan no matter how deep the client has paged.
+
+    @Query("SELECT o FROM Order o WHERE o.buyerId = :buyerId ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findFirstPageByBuyerId(@Param("buyerId") UUID buyerId, Pageable pageable);
+
+    @Query("""
+            SELECT o FROM Order o
+            WHERE o.buyerId = :buyerId
+              AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id))
+            ORDER BY o.createdAt DESC, o.id DESC
+            """)
+    List<Order> findPageByBuyerIdAfter(@Param("buyerId") UUID buyerId, @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") UUID id, Pageable pageable);
+
+    @Query("SELECT o FROM Order o ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findFirstPage(Pageable pageable);
+
+    @Query("""
+            SELECT o FROM Order o
+            WHERE o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)
+            ORDER BY o.createdAt DESC, o.id DESC
+            """)
+    List<Order> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id, Pageable pageable);
+
 }
@@ -0,0 +1,47 @@
+package marketplace.orderservice.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import marketplace.orderservice.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, UUID> {
+
+    // Lock timeout -2 renders as SKIP LOCKED so several order-service instances can relay in parallel
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.sentAt IS NULL AND e.availableAt <= :now ORDER BY e.availableAt")
+    List<OutboxEvent> findPendingForUpdate(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Drops an event that was not sent yet. Waits for the relay if it is sending the row right now,
+     * and then finds nothing to delete.
+     *
+     * @return the number of pending events deleted, 0 when the event was already sent or never written
+     */
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.aggregateId = :aggregateId AND e.topic = :topic AND e.sentAt IS NULL")
+    int deletePending(@Param("aggregateId") UUID aggregateId, @Param("topic") String topic);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.availableAt = :now " +
+           "WHERE e.aggregateId = :aggregateId AND e.topic = :topic AND e.sentAt IS NULL AND e.availableAt > :now")
+    int makeAvailable(@Param("aggregateId") UUID aggregateId, @Param("topic") String topic,
+                      @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.sentAt IS NOT NULL AND e.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+}
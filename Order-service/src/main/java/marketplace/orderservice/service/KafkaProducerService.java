@@ -1,16 +1,23 @@
 package marketplace.orderservice.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import marketplace.orderservice.config.KafkaTopics;
-import marketplace.orderservice.dto.OrderCreatedEventDto;
+import marketplace.orderservice.entity.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 @Slf4j
@@ -18,35 +25,39 @@ import java.util.concurrent.CompletableFuture;
 public class KafkaProducerService {
 
     private final KafkaTemplate<String, String> kafkaTemplate;
-    private final ObjectMapper objectMapper;
-
-    public void sendOrderCreatedEvent(OrderCreatedEventDto event) {
-        try {
-            String eventJson = objectMapper.writeValueAsString(event);
-            String key = event.orderId().toString();
-
-            log.info("Publishing order created event for order: {}", event.orderId());
-
-            CompletableFuture<SendResult<String, String>> future = kafkaTemplate.send(KafkaTopics.ORDER_CREATED, key, eventJson);
-
-            future.whenComplete((result, ex) -> {
-                if (ex == null) {
-                    log.info("Successfully published order created event for order: {} to topic: {} with offset: {}",
-                            event.orderId(), KafkaTopics.ORDER_CREATED, result.getRecordMetadata().offset());
-                } else {
-                    log.error("Failed to publish order created event for order: {} to topic: {}. Error: {}",
-                            event.orderId(), KafkaTopics.ORDER_CREATED, ex.getMessage(), ex);
-                }
-            });
-
-        } catch (JsonProcessingException e) {
-            log.error("Failed to serialize order created event for order: {}. Error: {}",
-                     event.orderId(), e.getMessage(), e);
-            throw new RuntimeException("Failed to serialize order event", e);
-        } catch (Exception e) {
-            log.error("Unexpected error publishing order created event for order: {}. Error: {}",
-                     event.orderId(), e.getMessage(), e);
-            throw new RuntimeException("Failed to publish order event", e);
+
+    @Value("${order.outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    /**
+     * Sends every event of the batch without waiting in between, then waits for the broker
+     * acknowledgements. Returns the IDs of the events that were published successfully.
+     */
+    public Set<UUID> publishBatch(List<OutboxEvent> events) {
+        Map<UUID, CompletableFuture<SendResult<String, String>>> pending = new LinkedHashMap<>();
+
+        for (OutboxEvent event : events) {
+            pending.put(event.getId(), kafkaTemplate.send(event.getTopic(), event.getEventKey(), event.getPayload()));
         }
+        kafkaTemplate.flush();
+
+        Set<UUID> published = new HashSet<>();
+        for (Map.Entry<UUID, CompletableFuture<SendResult<String, String>>> entry : pending.entrySet()) {
+            try {
+                SendResult<String, String> result = entry.getValue().get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+                published.add(entry.getKey());
+                log.debug("Published outbox event: {} to topic: {} with offset: {}",
+                        entry.getKey(), result.getRecordMetadata().topic(), result.getRecordMetadata().offset());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Interrupted while waiting for Kafka acknowledgements, remaining events will be retried");
+                break;
+            } catch (ExecutionException | TimeoutException e) {
+                log.error("Failed to publish outbox event: {}. Error: {}", entry.getKey(), e.getMessage());
+            }
+        }
+
+        log.info("Published {} of {} outbox events", published.size(), events.size());
+        return published;
     }
 }
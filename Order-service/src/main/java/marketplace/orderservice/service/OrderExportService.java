@@ -0,0 +1,132 @@
+package marketplace.orderservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import marketplace.orderservice.dto.OrderItemResponseDto;
+import marketplace.orderservice.dto.OrderResponseDto;
+import marketplace.orderservice.entity.OrderStaus;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Streams orders as newline-delimited JSON straight from a forward-only cursor.
+ * Only the order being written is held in memory, so heap usage does not depend on the table size.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class OrderExportService {
+
+    // MySQL Connector/J only streams rows one at a time when the fetch size is Integer.MIN_VALUE
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    private static final byte NEWLINE = '\n';
+
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public long exportOrders(OrderStaus status, LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        // Flat rows of order + item scalars: nothing is attached to the persistence context while scrolling
+        StringBuilder hql = new StringBuilder("""
+                SELECT o.id, o.buyerId, o.status, o.totalAmount, o.createdAt, o.updatedAt,
+                       i.id, i.productName, i.productPrice, i.quantity, i.totalPrice
+                FROM Order o LEFT JOIN o.items i
+                WHERE 1 = 1
+                """);
+        if (status != null) {
+            hql.append(" AND o.status = :status");
+        }
+        if (from != null) {
+            hql.append(" AND o.createdAt >= :from");
+        }
+        if (to != null) {
+            hql.append(" AND o.createdAt < :to");
+        }
+        // Rows of the same order are adjacent, so each order can be written as soon as the next one starts
+        hql.append(" ORDER BY o.createdAt, o.id");
+
+        Query<Object[]> query = entityManager.unwrap(Session.class).createQuery(hql.toString(), Object[].class);
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        if (from != null) {
+            query.setParameter("from", from);
+        }
+        if (to != null) {
+            query.setParameter("to", to);
+        }
+        query.setFetchSize(STREAMING_FETCH_SIZE);
+        query.setReadOnly(true);
+
+        ObjectWriter writer = objectMapper.writerFor(OrderResponseDto.class);
+        long exported = 0;
+
+        try (ScrollableResults<Object[]> rows = query.scroll(ScrollMode.FORWARD_ONLY)) {
+            Object[] orderRow = null;
+            List<OrderItemResponseDto> items = new ArrayList<>();
+
+            while (rows.next()) {
+                Object[] row = rows.get();
+
+                if (orderRow == null || !orderRow[0].equals(row[0])) {
+                    if (orderRow != null) {
+                        writeOrder(writer, out, orderRow, items);
+                        exported++;
+                    }
+                    orderRow = row;
+                    items = new ArrayList<>();
+                }
+
+                if (row[6] != null) {
+                    items.add(OrderItemResponseDto.builder()
+                            .id((UUID) row[6])
+                            .productName((String) row[7])
+                            .productPrice((BigDecimal) row[8])
+                            .quantity((Integer) row[9])
+                            .totalPrice((BigDecimal) row[10])
+                            .build());
+                }
+            }
+
+            if (orderRow != null) {
+                writeOrder(writer, out, orderRow, items);
+                exported++;
+            }
+        }
+
+        out.flush();
+        log.info("Exported {} orders (status: {}, from: {}, to: {})", exported, status, from, to);
+        return exported;
+    }
+
+    private void writeOrder(ObjectWriter writer, OutputStream out, Object[] orderRow,
+                            List<OrderItemResponseDto> items) throws IOException {
+        OrderResponseDto order = OrderResponseDto.builder()
+                .id((UUID) orderRow[0])
+                .buyerId((UUID) orderRow[1])
+                .status((OrderStaus) orderRow[2])
+                .totalAmount((BigDecimal) orderRow[3])
+                .createdAt((LocalDateTime) orderRow[4])
+                .updatedAt((LocalDateTime) orderRow[5])
+                .items(items)
+                .build();
+
+        out.write(writer.writeValueAsBytes(order));
+        out.write(NEWLINE);
+    }
+}
@@ -0,0 +1,196 @@
+package marketplace.orderservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import marketplace.orderservice.dto.CreateOrderDto;
+import marketplace.orderservice.dto.IdempotentOrderResult;
+import marketplace.orderservice.dto.OrderItemDto;
+import marketplace.orderservice.dto.OrderResponseDto;
+import marketplace.orderservice.entity.IdempotencyRecord;
+import marketplace.orderservice.entity.Order;
+import marketplace.orderservice.exception.DuplicateIdempotencyKeyException;
+import marketplace.orderservice.exception.IdempotencyKeyMismatchException;
+import marketplace.orderservice.exception.OrderException;
+import marketplace.orderservice.exception.ValidationException;
+import marketplace.orderservice.mapper.OrderMapper;
+import marketplace.orderservice.repository.IdempotencyRecordRepository;
+import marketplace.orderservice.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Makes order creation safe to retry with an Idempotency-Key.
+ * <p>
+ * Recent results are kept in a bounded in-memory map so hot retries are answered without a query.
+ * Concurrent requests with the same key on this instance wait for the first one instead of creating
+ * their own order. The {@link IdempotencyRecord} table is the source of truth across instances and restarts.
+ */
+@Service
+@Slf4j
+public class OrderIdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final OrderRepository orderRepository;
+    private final OrderMapper orderMapper;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, StoredOrder> recentOrders;
+    private final ConcurrentMap<String, CompletableFuture<StoredOrder>> inFlight = new ConcurrentHashMap<>();
+    private final Counter replayedCounter;
+    private final Counter coalescedCounter;
+    private final Duration retention;
+
+    private record StoredOrder(String requestHash, OrderResponseDto order) {
+    }
+
+    private record Outcome(StoredOrder stored, boolean replayed) {
+    }
+
+    public OrderIdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                                   OrderRepository orderRepository, OrderMapper orderMapper,
+                                   PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                   @Value("${order.idempotency.cache-size:10000}") int cacheSize,
+                                   @Value("${order.idempotency.retention-hours:24}") long retentionHours) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.orderRepository = orderRepository;
+        this.orderMapper = orderMapper;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Access-ordered, so the least recently used key is evicted once the cap is reached
+        this.recentOrders = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredOrder> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        this.replayedCounter = Counter.builder("orders.idempotency.replayed")
+                .description("Order requests answered with the result of an earlier request with the same key")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("orders.idempotency.coalesced")
+                .description("Order requests that waited for an in-flight request with the same key")
+                .register(meterRegistry);
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    /**
+     * Creates the order at most once per buyer and key.
+     *
+     * @param creation creates the order, persisting the given record in the same transaction
+     */
+    public Mono<IdempotentOrderResult> createOrder(CreateOrderDto orderDto, UUID userId, String idempotencyKey,
+                                                   Function<IdempotencyRecord, Mono<Order>> creation) {
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new ValidationException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String requestHash = fingerprint(orderDto);
+        String cacheKey = userId + ":" + idempotencyKey;
+
+        StoredOrder recent = recentOrders.get(cacheKey);
+        if (recent != null) {
+            return Mono.fromCallable(() -> replay(recent, idempotencyKey, requestHash));
+        }
+
+        return Mono.defer(() -> {
+            CompletableFuture<StoredOrder> created = new CompletableFuture<>();
+            CompletableFuture<StoredOrder> existing = inFlight.putIfAbsent(cacheKey, created);
+            if (existing != null) {
+                coalescedCounter.increment();
+                return Mono.fromFuture(existing)
+                        .map(stored -> replay(stored, idempotencyKey, requestHash));
+            }
+
+            IdempotencyRecord record = IdempotencyRecord.builder()
+                    .buyerId(userId)
+                    .idempotencyKey(idempotencyKey)
+                    .requestHash(requestHash)
+                    .build();
+
+            return findStored(userId, idempotencyKey)
+                    .map(stored -> new Outcome(stored, true))
+                    .switchIfEmpty(Mono.defer(() -> creation.apply(record)
+                            .map(order -> new Outcome(new StoredOrder(requestHash, orderMapper.toOrderResponseDto(order)), false))))
+                    // Another instance committed the same key first, answer with its order
+                    .onErrorResume(DuplicateIdempotencyKeyException.class, e -> findStored(userId, idempotencyKey)
+                            .map(stored -> new Outcome(stored, true))
+                            .switchIfEmpty(Mono.error(e)))
+                    .doOnNext(outcome -> {
+                        recentOrders.put(cacheKey, outcome.stored());
+                        created.complete(outcome.stored());
+                    })
+                    .doOnError(created::completeExceptionally)
+                    .doOnCancel(() -> created.completeExceptionally(
+                            new OrderException("Order request with Idempotency-Key " + idempotencyKey + " was cancelled")))
+                    .doFinally(signal -> inFlight.remove(cacheKey, created))
+                    .map(outcome -> outcome.replayed()
+                            ? replay(outcome.stored(), idempotencyKey, requestHash)
+                            : new IdempotentOrderResult(outcome.stored().order(), false));
+        });
+    }
+
+    private Mono<StoredOrder> findStored(UUID userId, String idempotencyKey) {
+        return Mono.fromCallable(() -> readOnlyTransactionTemplate.execute(status ->
+                        idempotencyRecordRepository.findByBuyerIdAndIdempotencyKey(userId, idempotencyKey)
+                                .flatMap(record -> orderRepository.findWithItemsByIdAndBuyerId(record.getOrderId(), userId)
+                                        .map(order -> new StoredOrder(record.getRequestHash(), orderMapper.toOrderResponseDto(order))))))
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    private IdempotentOrderResult replay(StoredOrder stored, String idempotencyKey, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyMismatchException(idempotencyKey);
+        }
+        replayedCounter.increment();
+        log.info("Replaying order {} for Idempotency-Key: {}", stored.order().id(), idempotencyKey);
+        return new IdempotentOrderResult(stored.order(), true);
+    }
+
+    @Scheduled(fixedDelayString = "${order.idempotency.cleanup-interval-ms:3600000}")
+    public void purgeExpiredKeys() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        Integer deleted = transactionTemplate.execute(status -> idempotencyRecordRepository.deleteCreatedBefore(cutoff));
+
+        if (deleted != null && deleted > 0) {
+            log.info("Purged {} idempotency keys created before {}", deleted, cutoff);
+        }
+    }
+
+    /**
+     * SHA-256 of the requested items, used to reject a key reused with a different body.
+     */
+    static String fingerprint(CreateOrderDto orderDto) {
+        StringBuilder canonical = new StringBuilder();
+        for (OrderItemDto item : orderDto.items()) {
+            canonical.append(item.productId()).append(':').append(item.quantity()).append(';');
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new OrderException("SHA-256 is not available");
+        }
+    }
+}
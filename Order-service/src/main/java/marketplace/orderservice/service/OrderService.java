@@ -1,27 +1,45 @@
 package marketplace.orderservice.service;
 
 import marketplace.orderservice.dto.ApiResponseDTO;
+import marketplace.orderservice.dto.BulkCreateOrderDto;
+import marketplace.orderservice.dto.BulkOrderResponseDto;
 import marketplace.orderservice.dto.CreateOrderDto;
+import marketplace.orderservice.dto.OrderPageDto;
+import marketplace.orderservice.dto.OrderResponseDto;
 import marketplace.orderservice.dto.ProductDto;
+import marketplace.orderservice.entity.IdempotencyRecord;
 import marketplace.orderservice.entity.Order;
+import reactor.core.publisher.Mono;
 
-import java.util.List;
+import java.util.Collection;
+import java.util.Map;
 import java.util.UUID;
 
 public interface OrderService {
 
     ApiResponseDTO<Order> createOrder(CreateOrderDto order, UUID userId);
 
+    ApiResponseDTO<Order> createOrder(CreateOrderDto order, UUID userId, IdempotencyRecord idempotencyRecord);
 
-    ApiResponseDTO<Order> getOrderById(UUID orderId, UUID userId);
+    ApiResponseDTO<BulkOrderResponseDto> createOrders(BulkCreateOrderDto orders, UUID userId);
+
+    Mono<ApiResponseDTO<Order>> createOrderReactive(CreateOrderDto order, UUID userId, String token);
+
+    Mono<ApiResponseDTO<Order>> createOrderReactive(CreateOrderDto order, UUID userId, String token,
+                                                    IdempotencyRecord idempotencyRecord);
+
+
+    ApiResponseDTO<OrderResponseDto> getOrderById(UUID orderId, UUID userId);
 
     ApiResponseDTO<Order> updateOrder(Long orderId, Order orderDetails);
 
-    ApiResponseDTO<List<Order>> getAllOrders();
+    ApiResponseDTO<OrderPageDto> getAllOrders(String cursor, Integer size);
 
     ApiResponseDTO<ProductDto> getProductById(UUID productId, String token);
 
-    ApiResponseDTO<List<Order>> getMyOrders(UUID userId);
+    Map<UUID, ProductDto> getProductsByIds(Collection<UUID> productIds, String token);
+
+    ApiResponseDTO<OrderPageDto> getMyOrders(UUID userId, String cursor, Integer size);
 
 
 
@@ -1,45 +1,104 @@
 package marketplace.orderservice.service;
 
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import marketplace.orderservice.dto.ApiResponseDTO;
+import marketplace.orderservice.dto.BulkCreateOrderDto;
+import marketplace.orderservice.dto.BulkOrderResponseDto;
+import marketplace.orderservice.dto.BulkOrderResultDto;
 import marketplace.orderservice.dto.CreateOrderDto;
-import marketplace.orderservice.dto.OrderCreatedEventDto;
+import marketplace.orderservice.dto.InsufficientStockResponseDto;
+import marketplace.orderservice.dto.OrderCursor;
 import marketplace.orderservice.dto.OrderItemDto;
+import marketplace.orderservice.dto.OrderItemResponseDto;
+import marketplace.orderservice.dto.OrderItemRow;
+import marketplace.orderservice.dto.OrderPageDto;
+import marketplace.orderservice.dto.OrderResponseDto;
+import marketplace.orderservice.dto.ProductBatchRequestDto;
 import marketplace.orderservice.dto.ProductDto;
+import marketplace.orderservice.dto.StockReservationRequestDto;
+import marketplace.orderservice.entity.IdempotencyRecord;
 import marketplace.orderservice.entity.Order;
 import marketplace.orderservice.entity.OrderItem;
 import marketplace.orderservice.entity.OrderStaus;
 import marketplace.orderservice.exception.AuthenticationException;
+import marketplace.orderservice.exception.DuplicateIdempotencyKeyException;
+import marketplace.orderservice.exception.InsufficientStockException;
 import marketplace.orderservice.exception.OrderException;
 import marketplace.orderservice.exception.ProductNotFoundException;
+import marketplace.orderservice.exception.ProductServiceUnavailableException;
+import marketplace.orderservice.exception.ValidationException;
 import marketplace.orderservice.mapper.OrderMapper;
+import marketplace.orderservice.repository.IdempotencyRecordRepository;
+import marketplace.orderservice.repository.OrderItemRepository;
 import marketplace.orderservice.repository.OrderRepository;
+import marketplace.orderservice.service.ProductServiceResilience.Operation;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientException;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import java.math.BigDecimal;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class OrderServiceImpl implements OrderService {
 
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
     private final WebClient webclient;
     private final OrderMapper orderMapper;
     private final KafkaTemplate<String, String> kafkaTemplate;
-    private final KafkaProducerService kafkaProducerService;
+    private final OutboxService outboxService;
+    private final ProductCatalogReplica productCatalogReplica;
+    private final ProductLookupCoalescer productLookupCoalescer;
+    private final ProductServiceResilience productServiceResilience;
+    private final ServiceTokenProvider serviceTokenProvider;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer productResolutionTimer;
+    private final Timer stockReservationTimer;
+    private final Timer orderPersistTimer;
+    private final Timer bulkPersistTimer;
+    private final int productBatchSize;
+    private final int productLookupConcurrency;
+    private final Duration stockReleaseDelay;
+    private final Scheduler persistenceScheduler;
+    private final int defaultPageSize;
+    private final int maxPageSize;
 
     private String extractToken() {
         var auth = SecurityContextHolder.getContext().getAuthentication();
@@ -49,15 +108,50 @@ public class OrderServiceImpl implements OrderService {
         return null;
     }
 
-    public OrderServiceImpl(OrderRepository orderRepository, WebClient.Builder webclient, OrderMapper orderMapper,
-                           KafkaTemplate<String, String> kafkaTemplate, KafkaProducerService kafkaProducerService) {
+    public OrderServiceImpl(OrderRepository orderRepository, OrderItemRepository orderItemRepository,
+                           IdempotencyRecordRepository idempotencyRecordRepository, WebClient.Builder webclient, OrderMapper orderMapper,
+                           KafkaTemplate<String, String> kafkaTemplate, OutboxService outboxService,
+                           ProductCatalogReplica productCatalogReplica, ProductLookupCoalescer productLookupCoalescer,
+                           ProductServiceResilience productServiceResilience, ServiceTokenProvider serviceTokenProvider,
+                           PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                           Scheduler orderPersistenceScheduler,
+                           @Value("${order.product-lookup.batch-size:100}") int productBatchSize,
+                           @Value("${order.product-lookup.max-concurrency:8}") int productLookupConcurrency,
+                           @Value("${order.stock-release.delay-ms:300000}") long stockReleaseDelayMs,
+                           @Value("${order.pagination.default-size:20}") int defaultPageSize,
+                           @Value("${order.pagination.max-size:100}") int maxPageSize) {
         this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
         this.webclient = webclient
                 .baseUrl("http://gateway-service/api/v1/products")
                 .build();
         this.orderMapper = orderMapper;
         this.kafkaTemplate = kafkaTemplate;
-        this.kafkaProducerService = kafkaProducerService;
+        this.outboxService = outboxService;
+        this.productCatalogReplica = productCatalogReplica;
+        this.productLookupCoalescer = productLookupCoalescer;
+        this.productServiceResilience = productServiceResilience;
+        this.serviceTokenProvider = serviceTokenProvider;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productResolutionTimer = Timer.builder("orders.create.product.resolution")
+                .description("Time spent resolving products for a new order, outside any database transaction")
+                .register(meterRegistry);
+        this.stockReservationTimer = Timer.builder("orders.create.stock.reservation")
+                .description("Time spent reserving stock in product-service for a new order")
+                .register(meterRegistry);
+        this.orderPersistTimer = Timer.builder("orders.create.persist")
+                .description("Time a database connection is held to persist a new order")
+                .register(meterRegistry);
+        this.bulkPersistTimer = Timer.builder("orders.bulk.persist")
+                .description("Time a database connection is held to persist the valid orders of a bulk request")
+                .register(meterRegistry);
+        this.productBatchSize = productBatchSize;
+        this.productLookupConcurrency = productLookupConcurrency;
+        this.stockReleaseDelay = Duration.ofMillis(stockReleaseDelayMs);
+        this.persistenceScheduler = orderPersistenceScheduler;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
     @Override
@@ -73,22 +167,22 @@ public class OrderServiceImpl implements OrderService {
         }
 
         try {
-            ApiResponseDTO<ProductDto> response = webclient
-                    .get()
-                    .uri("/{productId}", productId)
-                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
-                    .retrieve()
-                    .bodyToMono(new ParameterizedTypeReference<ApiResponseDTO<ProductDto>>() {})
-                    .timeout(Duration.ofSeconds(10)) // Timeout configuration
+            // Concurrent callers for the same product share one request to product-service
+            ProductDto product = productLookupCoalescer.lookup(productId, id -> fetchProduct(id, token)
+                            .filter(ApiResponseDTO::success)
+                            .mapNotNull(ApiResponseDTO::data)
+                            .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty()))
                     .block();
 
-            if (response == null || !response.success()) {
+            if (product == null) {
                 throw new ProductNotFoundException(productId.toString());
             }
 
-
-
-            return response;
+            return ApiResponseDTO.<ProductDto>builder()
+                    .success(true)
+                    .message("Product retrieved successfully")
+                    .data(product)
+                    .build();
 
         } catch (WebClientResponseException.NotFound e) {
             log.error("Product not found with ID: {}", productId);
@@ -100,28 +194,266 @@ public class OrderServiceImpl implements OrderService {
         } catch (WebClientException e) {
             log.error("Network error calling product service for productId: {}, error: {}", productId, e.getMessage());
             throw new OrderException("Unable to connect to product service");
+        } catch (OrderException e) {
+            throw e;
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            throw toProductLookupException(e);
         } catch (Exception e) {
+            // block() wraps checked errors such as the timeout budget's TimeoutException
+            Throwable cause = Exceptions.unwrap(e);
+            if (cause instanceof TimeoutException || cause instanceof CallNotPermittedException
+                    || cause instanceof BulkheadFullException) {
+                throw toProductLookupException(cause);
+            }
             log.error("Unexpected error calling product service for productId: {}, error: {}", productId, e.getMessage());
             throw new OrderException("Unexpected error retrieving product information");
         }
     }
 
     @Override
-    public ApiResponseDTO<List<Order>> getMyOrders(UUID userId) {
-        List<Order> order = orderRepository.findByBuyerId(userId);
-        if(order.isEmpty()){
-        throw new OrderException("No orders found for user: " + userId);
+    public Map<UUID, ProductDto> getProductsByIds(Collection<UUID> productIds, String token) {
+        if (token == null || token.trim().isEmpty()) {
+            throw new AuthenticationException("Authentication token is required to fetch product information");
         }
-        return ApiResponseDTO.<List<Order>>builder()
+
+        Map<UUID, ProductDto> products = lookupProducts(productIds, token).block();
+        return products != null ? products : Map.of();
+    }
+
+    /**
+     * Resolves the given products from the local catalog replica when it is ready, and over HTTP otherwise
+     * or for products the replica does not know yet. Products that do not exist are absent from the result.
+     */
+    private Mono<Map<UUID, ProductDto>> lookupProducts(Collection<UUID> productIds, String token) {
+        List<UUID> uniqueIds = productIds.stream().distinct().toList();
+
+        if (!productCatalogReplica.isReady()) {
+            if (productCatalogReplica.isEnabled() && !productCatalogReplica.isHttpFallbackEnabled()) {
+                return Mono.error(new ProductServiceUnavailableException("Product catalog is not available yet, please retry shortly"));
+            }
+            return fetchProducts(uniqueIds, token);
+        }
+
+        Map<UUID, ProductDto> replicated = productCatalogReplica.findAll(uniqueIds);
+        List<UUID> missing = uniqueIds.stream().filter(id -> !replicated.containsKey(id)).toList();
+        if (missing.isEmpty() || !productCatalogReplica.isHttpFallbackEnabled()) {
+            return Mono.just(replicated);
+        }
+
+        // A product created moments ago may not have reached the replica yet
+        return fetchProducts(missing, token).map(fetched -> {
+            Map<UUID, ProductDto> products = new HashMap<>(replicated);
+            products.putAll(fetched);
+            return products;
+        });
+    }
+
+    /**
+     * Resolves the given products through the batch endpoint, one request per chunk of
+     * {@code order.product-lookup.batch-size} IDs. Products already being fetched by a concurrent
+     * order are shared rather than requested again. Products that do not exist are absent from the result.
+     */
+    private Mono<Map<UUID, ProductDto>> fetchProducts(List<UUID> uniqueIds, String token) {
+        return productLookupCoalescer.lookupAll(uniqueIds, ids -> fetchProductsUncoalesced(ids, token));
+    }
+
+    private Mono<Map<UUID, ProductDto>> fetchProductsUncoalesced(List<UUID> uniqueIds, String token) {
+        return Flux.fromIterable(uniqueIds)
+                .buffer(productBatchSize)
+                .concatMap(chunk -> fetchProductBatch(chunk, token))
+                .collectMap(ProductDto::id)
+                .onErrorResume(this::isBatchLookupUnavailable, e -> {
+                    // Older product-service instances do not expose the batch endpoint yet
+                    log.warn("Batch product lookup unavailable ({}), falling back to parallel lookups for {} products",
+                            e.getMessage(), uniqueIds.size());
+                    return fetchProductsInParallel(uniqueIds, token);
+                })
+                .onErrorMap(e -> !(e instanceof OrderException), this::toProductLookupException);
+    }
+
+    private Mono<ApiResponseDTO<ProductDto>> fetchProduct(UUID productId, String token) {
+        return productServiceResilience.protect(Operation.PRODUCT_LOOKUP, webclient
+                .get()
+                .uri("/{productId}", productId)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<ApiResponseDTO<ProductDto>>() {}));
+    }
+
+    private Flux<ProductDto> fetchProductBatch(List<UUID> productIds, String token) {
+        // The batch lookup only reads, so it may be hedged like a GET
+        return productServiceResilience.protect(Operation.PRODUCT_BATCH_LOOKUP, webclient
+                .post()
+                .uri("/batch")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .bodyValue(new ProductBatchRequestDto(productIds))
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<ApiResponseDTO<List<ProductDto>>>() {}))
+                .flatMapMany(response -> {
+                    if (!response.success() || response.data() == null) {
+                        return Flux.error(new OrderException("Product service returned an invalid batch response"));
+                    }
+                    return Flux.fromIterable(response.data());
+                });
+    }
+
+    private Mono<Map<UUID, ProductDto>> fetchProductsInParallel(List<UUID> productIds, String token) {
+        return Flux.fromIterable(productIds)
+                .flatMap(productId -> fetchProduct(productId, token)
+                        .filter(ApiResponseDTO::success)
+                        .mapNotNull(ApiResponseDTO::data)
+                        .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty()),
+                        productLookupConcurrency)
+                .collectMap(ProductDto::id);
+    }
+
+    /**
+     * Takes the ordered quantities out of stock in product-service, all items or none. Called with
+     * order-service's own token: buyers are not allowed to reserve stock directly.
+     * <p>
+     * The release of the reservation is written to the outbox first and held back for the release delay;
+     * saving the order cancels it. If product-service rejected the reservation (4xx) or it was never sent,
+     * nothing was taken and the release is cancelled. Any other failure, such as a timeout or a reset
+     * connection, may hide a reservation that was committed, so the release is sent right away. The
+     * reservation ID makes a repeated reserve or release harmless on the product-service side.
+     *
+     * @return the reservation ID, whose pending release the order's transaction cancels
+     */
+    private Mono<UUID> reserveStock(List<OrderItemDto> items) {
+        UUID reservationId = UUID.randomUUID();
+        return Mono.<Void>fromRunnable(() -> outboxService.scheduleStockRelease(reservationId, stockReleaseDelay))
+                .subscribeOn(persistenceScheduler)
+                .then(serviceToken())
+                // Never hedged: even with the reservation ID, a second attempt only adds load
+                .flatMap(serviceToken -> productServiceResilience.protect(Operation.STOCK_RESERVATION, webclient
+                        .post()
+                        .uri("/stock/reserve")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + serviceToken)
+                        .bodyValue(new StockReservationRequestDto(reservationId, items))
+                        .retrieve()
+                        .toBodilessEntity())
+                        .onErrorResume(e -> settleFailedReservation(reservationId, e).then(Mono.error(e))))
+                .thenReturn(reservationId)
+                .onErrorMap(WebClientResponseException.Conflict.class, this::toInsufficientStockException)
+                .onErrorMap(e -> !(e instanceof OrderException), this::toProductLookupException);
+    }
+
+    private Mono<Void> settleFailedReservation(UUID reservationId, Throwable e) {
+        Throwable cause = Exceptions.unwrap(e);
+        boolean notReserved = cause instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError()
+                || cause instanceof CallNotPermittedException
+                || cause instanceof BulkheadFullException;
+        return Mono.<Void>fromRunnable(() -> {
+                    if (notReserved) {
+                        outboxService.cancelStockRelease(reservationId);
+                    } else {
+                        log.warn("Outcome of stock reservation: {} is unknown, releasing it", reservationId);
+                        outboxService.expediteStockRelease(reservationId);
+                    }
+                })
+                .subscribeOn(persistenceScheduler)
+                .onErrorResume(settleError -> {
+                    // The delayed release is still in the outbox and goes out once the release delay has passed
+                    log.error("Failed to settle stock reservation: {}, error: {}", reservationId, settleError.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Sends the release of a reservation whose order was not saved with the next outbox relay run.
+     * A failure here is logged only: the release then goes out once its delay has passed.
+     */
+    private void releaseStock(UUID reservationId) {
+        try {
+            outboxService.expediteStockRelease(reservationId);
+        } catch (RuntimeException e) {
+            log.error("Failed to expedite stock release for reservation: {}, error: {}", reservationId, e.getMessage());
+        }
+    }
+
+    private Mono<String> serviceToken() {
+        // The token is cached, but a refresh calls the token endpoint and blocks
+        return Mono.fromCallable(serviceTokenProvider::getToken)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private OrderException toInsufficientStockException(WebClientResponseException.Conflict e) {
+        try {
+            InsufficientStockResponseDto shortage = e.getResponseBodyAs(InsufficientStockResponseDto.class);
+            if (shortage != null && shortage.requested() != null && shortage.available() != null) {
+                return new InsufficientStockException(shortage.productName(), shortage.requested(), shortage.available());
+            }
+        } catch (RuntimeException decodeError) {
+            log.warn("Could not read insufficient stock response: {}", decodeError.getMessage());
+        }
+        return new OrderException("Insufficient stock for one of the ordered products");
+    }
+
+    private boolean isBatchLookupUnavailable(Throwable e) {
+        return e instanceof WebClientResponseException.NotFound
+                || e instanceof WebClientResponseException.MethodNotAllowed;
+    }
+
+    private OrderException toProductLookupException(Throwable e) {
+        if (e instanceof WebClientResponseException responseException) {
+            log.error("Product service returned error for product lookup, status: {}, body: {}",
+                     responseException.getStatusCode(), responseException.getResponseBodyAsString());
+            return new OrderException("Product service error: " + responseException.getStatusCode());
+        }
+        if (e instanceof WebClientException) {
+            log.error("Network error calling product service for product lookup, error: {}", e.getMessage());
+            return new OrderException("Unable to connect to product service");
+        }
+        // The rejections below are our own load shedding, not a problem with the request, hence 503
+        if (e instanceof TimeoutException) {
+            log.error("Product service did not answer within its timeout budget");
+            return new ProductServiceUnavailableException("Product service did not respond in time, please retry shortly");
+        }
+        if (e instanceof CallNotPermittedException) {
+            log.warn("Circuit breaker is open, product service call rejected");
+            return new ProductServiceUnavailableException("Product service is temporarily unavailable, please retry shortly",
+                    productServiceResilience.getOpenStateDuration());
+        }
+        if (e instanceof BulkheadFullException) {
+            log.warn("Too many concurrent calls to product service, call rejected");
+            return new ProductServiceUnavailableException("Product service is busy, please retry shortly");
+        }
+        log.error("Unexpected error calling product service for product lookup, error: {}", e.getMessage());
+        return new OrderException("Unexpected error retrieving product information");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ApiResponseDTO<OrderPageDto> getMyOrders(UUID userId, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        // One extra row tells us whether there is a next page without a COUNT query
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<Order> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = orderRepository.findFirstPageByBuyerId(userId, limit);
+            if (orders.isEmpty()) {
+                throw new OrderException("No orders found for user: " + userId);
+            }
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            orders = orderRepository.findPageByBuyerIdAfter(userId, after.createdAt(), after.id(), limit);
+        }
+
+        return ApiResponseDTO.<OrderPageDto>builder()
                 .success(true)
                 .message("Orders retrieved successfully")
-                .data(order)
+                .data(toOrderPage(orders, pageSize))
                 .build();
     }
 
     @Override
-    @Transactional
     public ApiResponseDTO<Order> createOrder(CreateOrderDto orderDto, UUID userId) {
+        return createOrder(orderDto, userId, null);
+    }
+
+    @Override
+    public ApiResponseDTO<Order> createOrder(CreateOrderDto orderDto, UUID userId, IdempotencyRecord idempotencyRecord) {
         log.info("Creating order for user: {}", userId);
 
         String token = extractToken();
@@ -130,39 +462,18 @@ public class OrderServiceImpl implements OrderService {
         }
 
         try {
-            Order newOrder = Order.builder()
-                    .buyerId(userId)
-                    .status(OrderStaus.PENDING)
-                    .build();
+            // Phase 1: resolve and validate products without holding a database connection
+            Map<UUID, ProductDto> products = productResolutionTimer.record(
+                    () -> getProductsByIds(productIdsOf(orderDto), token));
+            Order newOrder = buildOrder(orderDto.items(), userId, products);
+            UUID reservationId = stockReservationTimer.record(() -> reserveStock(orderDto.items()).block());
 
-            BigDecimal total = processOrderItems(orderDto.items(), newOrder, token);
-
-            if (total.compareTo(BigDecimal.ZERO) <= 0) {
-                throw new OrderException("Order total must be greater than zero");
-            }
-
-            newOrder.setTotalAmount(total);
-            Order savedOrder = orderRepository.save(newOrder);
+            // Phase 2: short transaction that persists the order, its items and the OrderCreated outbox event
+            Order savedOrder = persistReservedOrder(newOrder, reservationId, idempotencyRecord);
 
             log.info("Order created successfully with ID: {} for user: {}", savedOrder.getId(), userId);
 
-            // Publish order created event after successful order creation
-            try {
-                OrderCreatedEventDto event = OrderCreatedEventDto.fromOrder(savedOrder);
-                kafkaProducerService.sendOrderCreatedEvent(event);
-                log.info("Order created event published successfully for order: {}", savedOrder.getId());
-            } catch (Exception kafkaException) {
-                // Log error but don't fail the transaction - the order was created successfully
-                log.error("Failed to publish order created event for order: {}. Event will be missed. Error: {}",
-                         savedOrder.getId(), kafkaException.getMessage(), kafkaException);
-                // Consider implementing a retry mechanism or dead letter queue here
-            }
-
-            return ApiResponseDTO.<Order>builder()
-                    .success(true)
-                    .message("Order created successfully")
-                    .data(savedOrder)
-                    .build();
+            return createdResponse(savedOrder);
 
         } catch (OrderException e) {
             log.error("Business logic error creating order for user: {}, error: {}", userId, e.getMessage());
@@ -173,57 +484,274 @@ public class OrderServiceImpl implements OrderService {
         }
     }
 
+    @Override
+    public ApiResponseDTO<BulkOrderResponseDto> createOrders(BulkCreateOrderDto bulkDto, UUID userId) {
+        List<CreateOrderDto> requested = bulkDto.orders();
+        log.info("Creating {} orders in bulk for user: {}", requested.size(), userId);
 
-    private BigDecimal processOrderItems(List<OrderItemDto> items, Order order, String token) {
-        BigDecimal total = BigDecimal.ZERO;
+        String token = extractToken();
+        if (token == null || token.trim().isEmpty()) {
+            throw new AuthenticationException("Authentication token is missing or invalid");
+        }
 
-        for (OrderItemDto item : items) {
+        // One deduplicated lookup covers the products of every order in the request
+        List<UUID> productIds = requested.stream()
+                .flatMap(orderDto -> productIdsOf(orderDto).stream())
+                .toList();
+        Map<UUID, ProductDto> products = productResolutionTimer.record(() -> getProductsByIds(productIds, token));
+
+        BulkOrderResultDto[] results = new BulkOrderResultDto[requested.size()];
+        List<Order> validOrders = new ArrayList<>();
+        List<Integer> validIndexes = new ArrayList<>();
+
+        for (int i = 0; i < requested.size(); i++) {
+            try {
+                validOrders.add(buildOrder(requested.get(i).items(), userId, products));
+                validIndexes.add(i);
+            } catch (OrderException e) {
+                log.warn("Rejected order {} of bulk request for user: {}, error: {}", i, userId, e.getMessage());
+                results[i] = failedResult(i, e.getMessage());
+            }
+        }
+
+        // Each order reserves its own stock, so a shortage only rejects the order that hit it
+        Map<Integer, UUID> reservations = new ConcurrentHashMap<>();
+        Map<Integer, String> shortages = stockReservationTimer.record(() -> Flux.fromIterable(validIndexes)
+                .flatMap(index -> reserveStock(requested.get(index).items())
+                        .doOnNext(reservationId -> reservations.put(index, reservationId))
+                        .then(Mono.<String>empty())
+                        .onErrorResume(OrderException.class, e -> Mono.just(e.getMessage()))
+                        .map(error -> Map.entry(index, error)), productLookupConcurrency)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .block());
+
+        List<Order> reservedOrders = new ArrayList<>();
+        List<Integer> reservedIndexes = new ArrayList<>();
+        List<UUID> reservationIds = new ArrayList<>();
+        for (int j = 0; j < validOrders.size(); j++) {
+            int index = validIndexes.get(j);
+            String shortage = shortages != null ? shortages.get(index) : null;
+            if (shortage != null) {
+                log.warn("Rejected order {} of bulk request for user: {}, error: {}", index, userId, shortage);
+                results[index] = failedResult(index, shortage);
+            } else {
+                reservedOrders.add(validOrders.get(j));
+                reservedIndexes.add(index);
+                reservationIds.add(reservations.get(index));
+            }
+        }
+
+        if (!reservedOrders.isEmpty()) {
             try {
-                ApiResponseDTO<ProductDto> productResponse = getProductById(item.productId(), token);
-                ProductDto product = productResponse.data();
+                List<Order> savedOrders = persistOrders(reservedOrders, reservationIds);
+                for (int j = 0; j < savedOrders.size(); j++) {
+                    int index = reservedIndexes.get(j);
+                    results[index] = BulkOrderResultDto.builder()
+                            .index(index)
+                            .success(true)
+                            .order(orderMapper.toOrderResponseDto(savedOrders.get(j)))
+                            .build();
+                }
+            } catch (Exception e) {
+                // The reserved orders share one transaction, so they fail together
+                log.error("Failed to persist bulk orders for user: {}, error: {}", userId, e.getMessage(), e);
+                reservationIds.forEach(this::releaseStock);
+                for (int index : reservedIndexes) {
+                    results[index] = failedResult(index, "Failed to create order: " + e.getMessage());
+                }
+            }
+        }
 
-                if (product.price() == null || product.price().compareTo(BigDecimal.ZERO) <= 0) {
-                    throw new OrderException("Invalid product price for product: " + product.name());
+        List<BulkOrderResultDto> orderedResults = Arrays.asList(results);
+        int created = (int) orderedResults.stream().filter(BulkOrderResultDto::success).count();
+        log.info("Bulk order request for user: {} created {} of {} orders", userId, created, requested.size());
+
+        return ApiResponseDTO.<BulkOrderResponseDto>builder()
+                .success(created > 0)
+                .message("Created " + created + " of " + requested.size() + " orders")
+                .data(BulkOrderResponseDto.builder()
+                        .created(created)
+                        .failed(requested.size() - created)
+                        .results(orderedResults)
+                        .build())
+                .build();
+    }
+
+    private BulkOrderResultDto failedResult(int index, String error) {
+        return BulkOrderResultDto.builder()
+                .index(index)
+                .success(false)
+                .error(error)
+                .build();
+    }
+
+    @Override
+    public Mono<ApiResponseDTO<Order>> createOrderReactive(CreateOrderDto orderDto, UUID userId, String token) {
+        return createOrderReactive(orderDto, userId, token, null);
+    }
+
+    @Override
+    public Mono<ApiResponseDTO<Order>> createOrderReactive(CreateOrderDto orderDto, UUID userId, String token,
+                                                           IdempotencyRecord idempotencyRecord) {
+        if (token == null || token.trim().isEmpty()) {
+            return Mono.error(new AuthenticationException("Authentication token is missing or invalid"));
+        }
+
+        log.info("Creating order for user: {}", userId);
+
+        return Mono.defer(() -> {
+                    Timer.Sample resolution = Timer.start(Clock.SYSTEM);
+                    return lookupProducts(productIdsOf(orderDto), token)
+                            .doFinally(signal -> resolution.stop(productResolutionTimer));
+                })
+                .map(products -> buildOrder(orderDto.items(), userId, products))
+                .flatMap(order -> {
+                    Timer.Sample reservation = Timer.start(Clock.SYSTEM);
+                    return reserveStock(orderDto.items())
+                            .doFinally(signal -> reservation.stop(stockReservationTimer))
+                            .map(reservationId -> Map.entry(order, reservationId));
+                })
+                // JPA is blocking, so persistence runs on a bounded pool instead of a Netty or servlet thread
+                .publishOn(persistenceScheduler)
+                .map(reserved -> persistReservedOrder(reserved.getKey(), reserved.getValue(), idempotencyRecord))
+                .map(savedOrder -> {
+                    log.info("Order created successfully with ID: {} for user: {}", savedOrder.getId(), userId);
+                    return createdResponse(savedOrder);
+                })
+                .doOnError(OrderException.class, e ->
+                        log.error("Business logic error creating order for user: {}, error: {}", userId, e.getMessage()))
+                .onErrorMap(e -> !(e instanceof OrderException), e -> {
+                    log.error("Unexpected error creating order for user: {}, error: {}", userId, e.getMessage(), e);
+                    return new OrderException("Failed to create order: " + e.getMessage());
+                });
+    }
+
+    private List<UUID> productIdsOf(CreateOrderDto orderDto) {
+        return orderDto.items().stream().map(OrderItemDto::productId).toList();
+    }
+
+    private Order buildOrder(List<OrderItemDto> items, UUID userId, Map<UUID, ProductDto> products) {
+        Order newOrder = Order.builder()
+                .buyerId(userId)
+                .status(OrderStaus.PENDING)
+                .build();
+
+        BigDecimal total = processOrderItems(items, newOrder, products);
+
+        if (total.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new OrderException("Order total must be greater than zero");
+        }
+
+        newOrder.setTotalAmount(total);
+        return newOrder;
+    }
+
+    private ApiResponseDTO<Order> createdResponse(Order savedOrder) {
+        return ApiResponseDTO.<Order>builder()
+                .success(true)
+                .message("Order created successfully")
+                .data(savedOrder)
+                .build();
+    }
+
+    /**
+     * Persists an order whose stock is already reserved, handing the stock back if the order cannot be saved.
+     */
+    private Order persistReservedOrder(Order order, UUID reservationId, IdempotencyRecord idempotencyRecord) {
+        try {
+            return persistOrder(order, reservationId, idempotencyRecord);
+        } catch (RuntimeException e) {
+            releaseStock(reservationId);
+            throw e;
+        }
+    }
+
+    private Order persistOrder(Order order, UUID reservationId, IdempotencyRecord idempotencyRecord) {
+        try {
+            return orderPersistTimer.record(() -> transactionTemplate.execute(status -> {
+                // The order and the cancellation of its stock release are committed together
+                keepReservation(reservationId);
+                Order savedOrder = orderRepository.save(order);
+                if (idempotencyRecord != null) {
+                    // Flushing here surfaces a key already claimed by another instance before the outbox write
+                    idempotencyRecord.setOrderId(savedOrder.getId());
+                    idempotencyRecordRepository.saveAndFlush(idempotencyRecord);
                 }
+                outboxService.enqueueOrderCreated(savedOrder);
+                return savedOrder;
+            }));
+        } catch (DataIntegrityViolationException e) {
+            if (idempotencyRecord == null) {
+                throw e;
+            }
+            throw new DuplicateIdempotencyKeyException(idempotencyRecord.getIdempotencyKey());
+        }
+    }
 
-                BigDecimal subtotal = product.price().multiply(BigDecimal.valueOf(item.quantity()));
+    private List<Order> persistOrders(List<Order> orders, List<UUID> reservationIds) {
+        // Orders, items and outbox rows are grouped into JDBC batches by hibernate.order_inserts
+        return bulkPersistTimer.record(() -> transactionTemplate.execute(status -> {
+            reservationIds.forEach(this::keepReservation);
+            List<Order> savedOrders = orderRepository.saveAll(orders);
+            outboxService.enqueueOrderCreated(savedOrders);
+            return savedOrders;
+        }));
+    }
 
-                OrderItem orderItem = OrderItem.builder()
-                        .productName(product.name())
-                        .productPrice(product.price())
-                        .quantity(item.quantity())
-                        .totalPrice(subtotal)
-                        .order(order)
-                        .build();
+    private void keepReservation(UUID reservationId) {
+        if (!outboxService.cancelStockRelease(reservationId)) {
+            // The release delay passed and the stock went back, so the order cannot be created with it
+            throw new OrderException("Stock reservation expired before the order was saved, please retry");
+        }
+    }
 
-                order.addItem(orderItem);
-                total = total.add(subtotal);
+    private BigDecimal processOrderItems(List<OrderItemDto> items, Order order, Map<UUID, ProductDto> products) {
+        BigDecimal total = BigDecimal.ZERO;
 
-                log.debug("Added item to order - Product: {}, Price: {}, Quantity: {}, Subtotal: {}",
-                         product.name(), product.price(), item.quantity(), subtotal);
+        for (OrderItemDto item : items) {
+            ProductDto product = products.get(item.productId());
 
-            } catch (ProductNotFoundException e) {
+            if (product == null) {
                 log.error("Product not found while processing order: {}", item.productId());
                 throw new OrderException("Product with ID " + item.productId() + " is not available");
-            } catch (Exception e) {
-                log.error("Error processing item {}: {}", item.productId(), e.getMessage());
-                throw new OrderException("Failed to process product: " + item.productId());
             }
+
+            if (product.price() == null || product.price().compareTo(BigDecimal.ZERO) <= 0) {
+                throw new OrderException("Invalid product price for product: " + product.name());
+            }
+
+            BigDecimal subtotal = product.price().multiply(BigDecimal.valueOf(item.quantity()));
+
+            OrderItem orderItem = OrderItem.builder()
+                    .productName(product.name())
+                    .productPrice(product.price())
+                    .quantity(item.quantity())
+                    .totalPrice(subtotal)
+                    .order(order)
+                    .build();
+
+            order.addItem(orderItem);
+            total = total.add(subtotal);
+
+            log.debug("Added item to order - Product: {}, Price: {}, Quantity: {}, Subtotal: {}",
+                     product.name(), product.price(), item.quantity(), subtotal);
         }
 
         return total;
     }
 
     @Override
-    public ApiResponseDTO<Order> getOrderById(UUID orderId, UUID userId) {
-        Optional<Order> myOrder = orderRepository.findByIdAndBuyerId(orderId, userId);
+    @Transactional(readOnly = true)
+    public ApiResponseDTO<OrderResponseDto> getOrderById(UUID orderId, UUID userId) {
+        // Order and items come back in one joined query
+        Optional<Order> myOrder = orderRepository.findWithItemsByIdAndBuyerId(orderId, userId);
         if (myOrder.isEmpty()) {
             throw new OrderException("Order not found for user: " + userId + " with order ID: " + orderId);
         }
-        return ApiResponseDTO.<Order>builder()
+        return ApiResponseDTO.<OrderResponseDto>builder()
                 .success(true)
                 .message("Order retrieved successfully")
-                .data(myOrder.get())
+                .data(orderMapper.toOrderResponseDto(myOrder.get()))
                 .build();
     }
 
@@ -233,15 +761,70 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
-    public ApiResponseDTO<List<Order>> getAllOrders() {
-        List<Order> orders = orderRepository.findAll();
-        if (orders.isEmpty()) {
-            throw new OrderException("No orders found");
+    @Transactional(readOnly = true)
+    public ApiResponseDTO<OrderPageDto> getAllOrders(String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<Order> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = orderRepository.findFirstPage(limit);
+            if (orders.isEmpty()) {
+                throw new OrderException("No orders found");
+            }
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            orders = orderRepository.findPageAfter(after.createdAt(), after.id(), limit);
         }
-        return ApiResponseDTO.<List<Order>>builder()
+
+        return ApiResponseDTO.<OrderPageDto>builder()
                 .success(true)
                 .message("Orders retrieved successfully")
-                .data(orders)
+                .data(toOrderPage(orders, pageSize))
+                .build();
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        if (size < 1) {
+            throw new ValidationException("Page size must be at least 1");
+        }
+        return Math.min(size, maxPageSize);
+    }
+
+    private List<OrderResponseDto> toOrderResponses(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+
+        // Items of the whole page are loaded by one query and grouped here, instead of one lazy load per order
+        Map<UUID, List<OrderItemResponseDto>> itemsByOrder = orderItemRepository
+                .findRowsByOrderIdIn(orders.stream().map(Order::getId).toList())
+                .stream()
+                .collect(Collectors.groupingBy(OrderItemRow::orderId, Collectors.mapping(
+                        (OrderItemRow row) -> orderMapper.toOrderItemResponseDto(row), Collectors.toList())));
+
+        return orders.stream()
+                .map(order -> orderMapper.toOrderResponseDto(order, itemsByOrder.getOrDefault(order.getId(), List.of())))
+                .toList();
+    }
+
+    private OrderPageDto toOrderPage(List<Order> orders, int pageSize) {
+        boolean hasMore = orders.size() > pageSize;
+        List<Order> page = hasMore ? orders.subList(0, pageSize) : orders;
+
+        String nextCursor = null;
+        if (hasMore) {
+            Order last = page.get(page.size() - 1);
+            nextCursor = new OrderCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return OrderPageDto.builder()
+                .items(toOrderResponses(page))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
                 .build();
     }
 }
@@ -0,0 +1,94 @@
+package marketplace.orderservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import marketplace.orderservice.entity.OutboxEvent;
+import marketplace.orderservice.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Drains the outbox table to Kafka in batches and purges events that were already sent.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaProducerService kafkaProducerService;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final int batchSize;
+    private final Duration retention;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, KafkaProducerService kafkaProducerService,
+                       PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                       @Value("${order.outbox.batch-size:100}") int batchSize,
+                       @Value("${order.outbox.retention-hours:24}") long retentionHours) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaProducerService = kafkaProducerService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.publishedCounter = Counter.builder("orders.outbox.published")
+                .description("Outbox events acknowledged by Kafka")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("orders.outbox.failed")
+                .description("Outbox events that failed to publish and will be retried")
+                .register(meterRegistry);
+        this.batchSize = batchSize;
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.poll-interval-ms:500}")
+    public void relayPendingEvents() {
+        Integer relayed;
+        // Keep draining while full batches go out, stop on a partial batch or on failures
+        do {
+            relayed = transactionTemplate.execute(status -> relayBatch());
+        } while (relayed != null && relayed == batchSize);
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.findPendingForUpdate(LocalDateTime.now(), PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Set<UUID> published = kafkaProducerService.publishBatch(batch);
+        LocalDateTime sentAt = LocalDateTime.now();
+
+        // Changes are flushed by dirty checking when the transaction commits
+        for (OutboxEvent event : batch) {
+            if (published.contains(event.getId())) {
+                event.setSentAt(sentAt);
+            } else {
+                event.setAttempts(event.getAttempts() + 1);
+            }
+        }
+
+        publishedCounter.increment(published.size());
+        failedCounter.increment(batch.size() - published.size());
+        return published.size();
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.cleanup-interval-ms:3600000}")
+    public void purgeSentEvents() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        Integer deleted = transactionTemplate.execute(status -> outboxEventRepository.deleteSentBefore(cutoff));
+
+        if (deleted != null && deleted > 0) {
+            log.info("Purged {} outbox events sent before {}", deleted, cutoff);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package marketplace.orderservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import marketplace.orderservice.config.KafkaTopics;
+import marketplace.orderservice.dto.OrderCreatedEventDto;
+import marketplace.orderservice.dto.StockReleaseEventDto;
+import marketplace.orderservice.entity.Order;
+import marketplace.orderservice.entity.OutboxEvent;
+import marketplace.orderservice.exception.OrderException;
+import marketplace.orderservice.repository.OutboxEventRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Stores the OrderCreated event for the given order. Must join the transaction that
+     * persists the order so both rows are committed or rolled back together.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueOrderCreated(Order order) {
+        OutboxEvent outboxEvent = toOrderCreatedEvent(order);
+        outboxEventRepository.save(outboxEvent);
+        log.debug("Order created event stored in outbox for order: {}", outboxEvent.getAggregateId());
+    }
+
+    /**
+     * Stores the OrderCreated events of several orders. The inserts go out as JDBC batches
+     * and the relay publishes them together.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueOrderCreated(List<Order> orders) {
+        outboxEventRepository.saveAll(orders.stream().map(this::toOrderCreatedEvent).toList());
+        log.debug("{} order created events stored in outbox", orders.size());
+    }
+
+    /**
+     * Stores the release of a stock reservation before the reservation is requested, held back for the
+     * given delay. Saving the order cancels it; otherwise it reaches product-service even if this
+     * instance dies, or the reservation response was lost after product-service had committed it.
+     * Runs in its own transaction so the row is committed before the reservation is sent.
+     */
+    @Transactional
+    public void scheduleStockRelease(UUID reservationId, Duration delay) {
+        try {
+            outboxEventRepository.save(OutboxEvent.builder()
+                    .aggregateId(reservationId)
+                    .topic(KafkaTopics.STOCK_RELEASE)
+                    .eventKey(reservationId.toString())
+                    .payload(objectMapper.writeValueAsString(new StockReleaseEventDto(reservationId)))
+                    .availableAt(LocalDateTime.now().plus(delay))
+                    .build());
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize stock release for reservation: {}. Error: {}",
+                     reservationId, e.getMessage(), e);
+            throw new OrderException("Failed to serialize stock release", e);
+        }
+    }
+
+    /**
+     * Cancels the pending release of a reservation. Joins the transaction that saves the order, if any.
+     *
+     * @return false when the release was already sent, so the stock is no longer reserved
+     */
+    @Transactional
+    public boolean cancelStockRelease(UUID reservationId) {
+        return outboxEventRepository.deletePending(reservationId, KafkaTopics.STOCK_RELEASE) > 0;
+    }
+
+    /**
+     * Sends the pending release of a reservation with the next relay run instead of after its delay.
+     */
+    @Transactional
+    public void expediteStockRelease(UUID reservationId) {
+        outboxEventRepository.makeAvailable(reservationId, KafkaTopics.STOCK_RELEASE, LocalDateTime.now());
+    }
+
+    private OutboxEvent toOrderCreatedEvent(Order order) {
+        OrderCreatedEventDto event = OrderCreatedEventDto.fromOrder(order);
+
+        try {
+            return OutboxEvent.builder()
+                    .aggregateId(event.orderId())
+                    .topic(KafkaTopics.ORDER_CREATED)
+                    .eventKey(event.orderId().toString())
+                    .payload(objectMapper.writeValueAsString(event))
+                    .build();
+
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize order created event for order: {}. Error: {}",
+                     event.orderId(), e.getMessage(), e);
+            throw new OrderException("Failed to serialize order event", e);
+        }
+    }
+}
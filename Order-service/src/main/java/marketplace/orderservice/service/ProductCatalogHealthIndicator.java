@@ -0,0 +1,31 @@
+package marketplace.orderservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Readiness gate for the product catalog replica. While the replica bootstraps the instance is only
+ * held out of service when orders cannot fall back to HTTP product lookups.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductCatalogHealthIndicator implements HealthIndicator {
+
+    private final ProductCatalogReplica productCatalogReplica;
+
+    @Override
+    public Health health() {
+        if (!productCatalogReplica.isEnabled()) {
+            return Health.up().withDetail("replica", "disabled").build();
+        }
+        if (productCatalogReplica.isReady()) {
+            return Health.up().withDetail("replica", "ready").build();
+        }
+        if (productCatalogReplica.isHttpFallbackEnabled()) {
+            return Health.up().withDetail("replica", "bootstrapping, using HTTP lookups").build();
+        }
+        return Health.outOfService().withDetail("replica", "bootstrapping").build();
+    }
+}
@@ -0,0 +1,159 @@
+package marketplace.orderservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import marketplace.orderservice.config.KafkaTopics;
+import marketplace.orderservice.dto.ProductDto;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of the product catalog, fed by the compacted topic product-service publishes to.
+ * <p>
+ * On startup the whole topic is read from the beginning; lookups only use the replica once that
+ * bootstrap has caught up with the end of the topic. Until then callers fall back to HTTP, or are
+ * refused when the fallback is disabled.
+ */
+@Component
+@Slf4j
+public class ProductCatalogReplica implements ConsumerSeekAware {
+
+    private static final String LISTENER_ID = "product-catalog-replica";
+
+    private final Map<UUID, ProductDto> products = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final boolean httpFallback;
+    private volatile boolean ready;
+
+    // Only touched on the listener thread
+    private Map<TopicPartition, Long> bootstrapEndOffsets;
+    private boolean assigned;
+
+    public ProductCatalogReplica(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                 @Value("${order.product-catalog.enabled:true}") boolean enabled,
+                                 @Value("${order.product-catalog.http-fallback:true}") boolean httpFallback) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.httpFallback = httpFallback;
+        Gauge.builder("orders.product-catalog.size", products, Map::size)
+                .description("Products held by the local catalog replica")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    public boolean isHttpFallbackEnabled() {
+        return httpFallback;
+    }
+
+    /**
+     * Returns the replicated products among the given IDs; unknown IDs are absent from the result.
+     */
+    public Map<UUID, ProductDto> findAll(Collection<UUID> productIds) {
+        Map<UUID, ProductDto> found = new HashMap<>();
+        for (UUID productId : productIds) {
+            ProductDto product = products.get(productId);
+            if (product != null) {
+                found.put(productId, product);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        // Re-reading the compacted topic is idempotent, so any (re)assignment rebuilds from the start
+        callback.seekToBeginning(assignments.keySet());
+        bootstrapEndOffsets = null;
+        assigned = !assignments.isEmpty();
+    }
+
+    @KafkaListener(id = LISTENER_ID,
+            topics = KafkaTopics.PRODUCT_CATALOG,
+            groupId = "order-service-catalog-${random.uuid}",
+            containerFactory = "productCatalogListenerContainerFactory",
+            autoStartup = "${order.product-catalog.enabled:true}")
+    public void onCatalogRecords(List<ConsumerRecord<String, String>> records, Consumer<?, ?> consumer) {
+        for (ConsumerRecord<String, String> record : records) {
+            apply(record);
+        }
+
+        if (!ready) {
+            checkBootstrapComplete(consumer);
+        }
+    }
+
+    @EventListener
+    public void onIdle(ListenerContainerIdleEvent event) {
+        // An empty topic never reaches onCatalogRecords, so idle polls also check the end offsets. The
+        // container is idle before its first assignment too, which must not count as caught up.
+        if (!ready && assigned && event.getListenerId().startsWith(LISTENER_ID)) {
+            checkBootstrapComplete(event.getConsumer());
+        }
+    }
+
+    private void apply(ConsumerRecord<String, String> record) {
+        UUID productId;
+        try {
+            productId = UUID.fromString(record.key());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            log.warn("Skipping catalog record with invalid key '{}' at offset {}", record.key(), record.offset());
+            return;
+        }
+
+        if (record.value() == null) {
+            products.remove(productId);
+            return;
+        }
+
+        try {
+            products.put(productId, objectMapper.readValue(record.value(), ProductDto.class));
+        } catch (JsonProcessingException e) {
+            log.error("Skipping unreadable catalog record for product: {} at offset {}, error: {}",
+                    productId, record.offset(), e.getMessage());
+        }
+    }
+
+    private void checkBootstrapComplete(Consumer<?, ?> consumer) {
+        if (!assigned) {
+            return;
+        }
+        if (bootstrapEndOffsets == null) {
+            bootstrapEndOffsets = consumer.endOffsets(consumer.assignment());
+        }
+        boolean caughtUp = bootstrapEndOffsets.entrySet().stream()
+                .allMatch(end -> consumer.position(end.getKey()) >= end.getValue());
+        if (caughtUp) {
+            markReady();
+        }
+    }
+
+    private void markReady() {
+        ready = true;
+        log.info("Product catalog replica is ready with {} products", products.size());
+    }
+}
@@ -0,0 +1,120 @@
+package marketplace.orderservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import marketplace.orderservice.dto.ProductDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Single-flight layer for product-service lookups.
+ * <p>
+ * Callers asking for a product that is already being fetched share that request instead of sending
+ * their own, and the result stays shared for {@code order.product-lookup.coalescing-ttl-ms} afterwards.
+ * Failed lookups are dropped right away so the next caller retries. Products are not user-specific,
+ * so sharing a result across callers with different tokens is safe.
+ */
+@Component
+public class ProductLookupCoalescer {
+
+    private final ConcurrentMap<UUID, CompletableFuture<ProductDto>> flights = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    private final Counter issuedCounter;
+    private final Counter coalescedCounter;
+
+    public ProductLookupCoalescer(MeterRegistry meterRegistry,
+                                  @Value("${order.product-lookup.coalescing-ttl-ms:1000}") long ttlMs) {
+        this.ttl = Duration.ofMillis(ttlMs);
+        this.issuedCounter = Counter.builder("orders.product-lookup.issued")
+                .description("Product lookups sent to product-service")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("orders.product-lookup.coalesced")
+                .description("Product lookups served by a request already in flight or recently completed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Resolves one product. The mono is empty when the product does not exist.
+     */
+    public Mono<ProductDto> lookup(UUID productId, Function<UUID, Mono<ProductDto>> loader) {
+        return lookupAll(List.of(productId), ids -> loader.apply(ids.get(0))
+                        .map(product -> Map.of(ids.get(0), product)))
+                .mapNotNull(products -> products.get(productId));
+    }
+
+    /**
+     * Resolves several products, sending one loader call for the IDs nobody else is fetching.
+     * Products that do not exist are absent from the result.
+     */
+    public Mono<Map<UUID, ProductDto>> lookupAll(Collection<UUID> productIds,
+                                                 Function<List<UUID>, Mono<Map<UUID, ProductDto>>> loader) {
+        return Mono.defer(() -> {
+            Map<UUID, CompletableFuture<ProductDto>> shared = new LinkedHashMap<>();
+            Map<UUID, CompletableFuture<ProductDto>> owned = new LinkedHashMap<>();
+
+            for (UUID productId : productIds) {
+                CompletableFuture<ProductDto> created = new CompletableFuture<>();
+                CompletableFuture<ProductDto> flight = flights.putIfAbsent(productId, created);
+                if (flight == null) {
+                    owned.put(productId, created);
+                    shared.put(productId, created);
+                } else {
+                    shared.put(productId, flight);
+                }
+            }
+
+            coalescedCounter.increment(shared.size() - owned.size());
+            if (!owned.isEmpty()) {
+                issuedCounter.increment(owned.size());
+                issue(owned, loader);
+            }
+
+            // suppressCancel: a caller going away must not cancel a lookup other callers are waiting on
+            return Flux.fromIterable(shared.entrySet())
+                    .flatMap(flight -> Mono.fromFuture(flight.getValue(), true)
+                            .map(product -> Map.entry(flight.getKey(), product)))
+                    .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+        });
+    }
+
+    private void issue(Map<UUID, CompletableFuture<ProductDto>> owned,
+                       Function<List<UUID>, Mono<Map<UUID, ProductDto>>> loader) {
+        List<UUID> productIds = new ArrayList<>(owned.keySet());
+
+        // Subscribed independently of the caller so the shared lookup always runs to completion
+        loader.apply(productIds)
+                .defaultIfEmpty(Map.of())
+                .subscribe(products -> owned.forEach((productId, flight) -> {
+                    // A missing product completes with null and is shared as "not found" for the TTL
+                    flight.complete(products.get(productId));
+                    expireLater(productId, flight);
+                }), error -> owned.forEach((productId, flight) -> {
+                    flights.remove(productId, flight);
+                    flight.completeExceptionally(error);
+                }));
+    }
+
+    private void expireLater(UUID productId, CompletableFuture<ProductDto> flight) {
+        if (ttl.isZero()) {
+            flights.remove(productId, flight);
+            return;
+        }
+        Schedulers.parallel().schedule(() -> flights.remove(productId, flight), ttl.toMillis(), TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,257 @@
+package marketplace.orderservice.service;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Resilience policy applied to every call from order-service to product-service:
+ * <ul>
+ *   <li>a circuit breaker that stops calling a failing product-service and probes it again half-open,</li>
+ *   <li>a bulkhead capping concurrent calls,</li>
+ *   <li>a timeout budget derived from observed p99 latency, bounded by {@code order.product-lookup.timeout-ms},</li>
+ *   <li>optionally, for read-only calls, a hedged second request once the p95 latency has passed. The
+ *   load-balanced client sends it to the next Eureka instance, and whichever answers first wins.</li>
+ * </ul>
+ * Latency is tracked per {@link Operation}, since a batch lookup is naturally slower than a single one,
+ * over a window of {@code order.product-client.latency-window-ms}. Until the window holds enough samples
+ * the budget and the hedge delay fall back to the maximum.
+ */
+@Component
+public class ProductServiceResilience {
+
+    /** Ring buffers of the latency window, as many as Micrometer rotates through for the percentiles. */
+    private static final int WINDOW_BUFFERS = 3;
+
+    /**
+     * The kinds of calls made to product-service, each with its own latency profile.
+     */
+    public enum Operation {
+        PRODUCT_LOOKUP("product-lookup", true),
+        PRODUCT_BATCH_LOOKUP("product-batch-lookup", true),
+        STOCK_RESERVATION("stock-reservation", false);
+
+        private final String tag;
+        private final boolean idempotent;
+
+        Operation(String tag, boolean idempotent) {
+            this.tag = tag;
+            this.idempotent = idempotent;
+        }
+    }
+
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Clock clock;
+    private final Map<Operation, OperationMetrics> metrics = new EnumMap<>(Operation.class);
+    private final Duration minTimeout;
+    private final Duration maxTimeout;
+    private final double timeoutMultiplier;
+    private final long minSamples;
+    private final boolean hedgingEnabled;
+    private final Duration minHedgeDelay;
+
+    public ProductServiceResilience(CircuitBreaker productServiceCircuitBreaker, Bulkhead productServiceBulkhead,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${order.product-client.timeout-min-ms:500}") long minTimeoutMs,
+                                    @Value("${order.product-lookup.timeout-ms:10000}") long maxTimeoutMs,
+                                    @Value("${order.product-client.timeout-p99-multiplier:3}") double timeoutMultiplier,
+                                    @Value("${order.product-client.latency-window-ms:120000}") long latencyWindowMs,
+                                    @Value("${order.product-client.latency-min-samples:100}") long minSamples,
+                                    @Value("${order.product-client.hedge-enabled:false}") boolean hedgingEnabled,
+                                    @Value("${order.product-client.hedge-min-delay-ms:50}") long minHedgeDelayMs) {
+        this.circuitBreaker = productServiceCircuitBreaker;
+        this.bulkhead = productServiceBulkhead;
+        this.clock = meterRegistry.config().clock();
+        Duration latencyWindow = Duration.ofMillis(latencyWindowMs);
+        for (Operation operation : Operation.values()) {
+            metrics.put(operation, new OperationMetrics(operation, meterRegistry, clock, latencyWindow));
+        }
+        this.minTimeout = Duration.ofMillis(minTimeoutMs);
+        this.maxTimeout = Duration.ofMillis(maxTimeoutMs);
+        this.timeoutMultiplier = timeoutMultiplier;
+        this.minSamples = minSamples;
+        this.hedgingEnabled = hedgingEnabled;
+        this.minHedgeDelay = Duration.ofMillis(minHedgeDelayMs);
+    }
+
+    /**
+     * Applies the policy to a request. The request is subscribed again for a hedge, so it must be a
+     * cold publisher, and only operations that are safe to send twice are hedged.
+     */
+    public <T> Mono<T> protect(Operation operation, Mono<T> request) {
+        OperationMetrics operationMetrics = metrics.get(operation);
+        return Mono.defer(() -> {
+                    Mono<T> attempt = timed(operationMetrics, request);
+                    Mono<T> call = operation.idempotent && hedgingEnabled ? hedged(operation, attempt) : attempt;
+                    Duration budget = timeoutBudget(operation);
+                    // The attempts cut short are cancelled, so the timeout is recorded here, at the budget
+                    return call.timeout(budget)
+                            .doOnError(TimeoutException.class, e -> operationMetrics.record(budget.toNanos()));
+                })
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    /**
+     * How long the circuit breaker stays open before it lets probe calls through, as a hint for
+     * callers it turned away.
+     */
+    public Duration getOpenStateDuration() {
+        return Duration.ofMillis(circuitBreaker.getCircuitBreakerConfig().getWaitIntervalFunctionInOpenState().apply(1));
+    }
+
+    private <T> Mono<T> timed(OperationMetrics operationMetrics, Mono<T> request) {
+        return Mono.defer(() -> {
+            long start = clock.monotonicTime();
+            // Failures count as well: a product-service that errors slowly must raise the budget too.
+            // An attempt cancelled because the other one won is left out, its latency is unknown.
+            return request.doOnTerminate(() -> operationMetrics.record(clock.monotonicTime() - start));
+        });
+    }
+
+    private <T> Mono<T> hedged(Operation operation, Mono<T> attempt) {
+        OperationMetrics operationMetrics = metrics.get(operation);
+        Mono<T> hedge = Mono.delay(hedgeDelay(operation))
+                .then(Mono.defer(() -> {
+                    operationMetrics.hedgesSent.increment();
+                    return attempt.doOnSuccess(result -> operationMetrics.hedgesWon.increment());
+                }));
+        // The first request to answer wins and the other one is cancelled
+        return Mono.firstWithSignal(attempt, hedge);
+    }
+
+    Duration timeoutBudget(Operation operation) {
+        Duration p99 = observedLatency(operation, 0.99);
+        if (p99 == null) {
+            return maxTimeout;
+        }
+        Duration budget = Duration.ofMillis((long) (p99.toMillis() * timeoutMultiplier));
+        return clamp(budget, minTimeout, maxTimeout);
+    }
+
+    Duration hedgeDelay(Operation operation) {
+        Duration p95 = observedLatency(operation, 0.95);
+        if (p95 == null) {
+            // Without enough samples a hedge could double the load, so it is pushed out to the budget
+            return maxTimeout;
+        }
+        return clamp(p95, minHedgeDelay, maxTimeout);
+    }
+
+    private Duration observedLatency(Operation operation, double percentile) {
+        OperationMetrics operationMetrics = metrics.get(operation);
+        // The timer's count is cumulative while its percentiles decay, so the gate counts the window only
+        if (operationMetrics.samples.count() < minSamples) {
+            return null;
+        }
+        for (ValueAtPercentile value : operationMetrics.latency.takeSnapshot().percentileValues()) {
+            if (value.percentile() == percentile) {
+                double millis = value.value(TimeUnit.MILLISECONDS);
+                // An empty window reads 0, which is no data rather than an instant product-service
+                return millis > 0 ? Duration.ofMillis((long) Math.ceil(millis)) : null;
+            }
+        }
+        return null;
+    }
+
+    private static Duration clamp(Duration value, Duration min, Duration max) {
+        if (value.compareTo(min) < 0) {
+            return min;
+        }
+        return value.compareTo(max) > 0 ? max : value;
+    }
+
+    private static final class OperationMetrics {
+
+        private final Timer latency;
+        private final SampleWindow samples;
+        private final Counter hedgesSent;
+        private final Counter hedgesWon;
+
+        OperationMetrics(Operation operation, MeterRegistry meterRegistry, Clock clock, Duration window) {
+            this.latency = Timer.builder("orders.product-client.latency")
+                    .description("Latency of requests to product-service, failed and timed out ones included")
+                    .tag("operation", operation.tag)
+                    .publishPercentiles(0.95, 0.99)
+                    .distributionStatisticExpiry(window)
+                    .distributionStatisticBufferLength(WINDOW_BUFFERS)
+                    .register(meterRegistry);
+            this.samples = new SampleWindow(clock, window);
+            this.hedgesSent = Counter.builder("orders.product-client.hedges.sent")
+                    .description("Hedged second requests sent to product-service")
+                    .tag("operation", operation.tag)
+                    .register(meterRegistry);
+            this.hedgesWon = Counter.builder("orders.product-client.hedges.won")
+                    .description("Hedged requests that answered before the original one")
+                    .tag("operation", operation.tag)
+                    .register(meterRegistry);
+        }
+
+        void record(long nanos) {
+            latency.record(nanos, TimeUnit.NANOSECONDS);
+            samples.record();
+        }
+    }
+
+    /**
+     * Counts the samples of the latency window, rotating its buffers on the same schedule as the
+     * timer's percentiles.
+     */
+    private static final class SampleWindow {
+
+        private final Clock clock;
+        private final long bufferDurationMillis;
+        private final long[] buffers = new long[WINDOW_BUFFERS];
+        private int current;
+        private long lastRotation;
+
+        SampleWindow(Clock clock, Duration window) {
+            this.clock = clock;
+            this.bufferDurationMillis = Math.max(1, window.toMillis() / WINDOW_BUFFERS);
+            this.lastRotation = clock.wallTime();
+        }
+
+        synchronized void record() {
+            rotate();
+            buffers[current]++;
+        }
+
+        synchronized long count() {
+            rotate();
+            long count = 0;
+            for (long buffer : buffers) {
+                count += buffer;
+            }
+            return count;
+        }
+
+        private void rotate() {
+            long elapsed = clock.wallTime() - lastRotation;
+            if (elapsed < bufferDurationMillis) {
+                return;
+            }
+            long rotations = elapsed / bufferDurationMillis;
+            for (long i = 0; i < Math.min(rotations, WINDOW_BUFFERS); i++) {
+                current = (current + 1) % WINDOW_BUFFERS;
+                buffers[current] = 0;
+            }
+            lastRotation += rotations * bufferDurationMillis;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package marketplace.orderservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import marketplace.orderservice.exception.OrderException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.client.OAuth2AuthorizeRequest;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.core.OAuth2AuthorizationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Access token of order-service's own service account, for product-service operations that a buyer's
+ * token is not allowed to perform.
+ */
+@Component
+@Slf4j
+public class ServiceTokenProvider {
+
+    private final OAuth2AuthorizedClientManager authorizedClientManager;
+    private final String registrationId;
+
+    public ServiceTokenProvider(OAuth2AuthorizedClientManager serviceAuthorizedClientManager,
+                                @Value("${order.service-client.registration-id:order-service}") String registrationId) {
+        this.authorizedClientManager = serviceAuthorizedClientManager;
+        this.registrationId = registrationId;
+    }
+
+    /**
+     * Returns a cached token, only calling the token endpoint when there is none or it is about to expire.
+     * Blocking, so reactive callers have to subscribe on a scheduler that allows it.
+     */
+    public String getToken() {
+        OAuth2AuthorizeRequest request = OAuth2AuthorizeRequest.withClientRegistrationId(registrationId)
+                .principal(registrationId)
+                .build();
+        OAuth2AuthorizedClient client;
+        try {
+            client = authorizedClientManager.authorize(request);
+        } catch (OAuth2AuthorizationException e) {
+            log.error("Could not obtain a service token for registration: {}, error: {}", registrationId, e.getMessage());
+            throw new OrderException("Unable to authenticate with product service");
+        }
+        if (client == null) {
+            throw new OrderException("Unable to authenticate with product service");
+        }
+        return client.getAccessToken().getTokenValue();
+    }
+}
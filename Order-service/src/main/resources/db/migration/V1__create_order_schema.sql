@@ -0,0 +1,59 @@
+-- Orders are always read by buyer, newest first, with keyset pagination on (created_at, id).
+-- findByIdAndBuyerId is served by the primary key.
+CREATE TABLE orders
+(
+    id           BINARY(16) NOT NULL,
+    buyer_id     BINARY(16),
+    status       ENUM ('PENDING', 'COMPLETED', 'CANCELLED'),
+    total_amount DECIMAL(38, 2),
+    created_at   DATETIME(6),
+    updated_at   DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_orders_buyer_created_id ON orders (buyer_id, created_at, id);
+CREATE INDEX idx_orders_created_id ON orders (created_at, id);
+
+CREATE TABLE order_item
+(
+    id            BINARY(16) NOT NULL,
+    order_id      BINARY(16) NOT NULL,
+    product_name  VARCHAR(255),
+    product_price DECIMAL(38, 2),
+    quantity      INTEGER,
+    total_price   DECIMAL(38, 2),
+    PRIMARY KEY (id),
+    -- Item rows are loaded for a page of orders at once (findRowsByOrderIdIn)
+    INDEX idx_order_item_order_id (order_id),
+    CONSTRAINT fk_order_item_order FOREIGN KEY (order_id) REFERENCES orders (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE order_outbox
+(
+    id           BINARY(16)   NOT NULL,
+    aggregate_id BINARY(16)   NOT NULL,
+    topic        VARCHAR(255) NOT NULL,
+    event_key    VARCHAR(255) NOT NULL,
+    payload      TEXT         NOT NULL,
+    attempts     INTEGER      NOT NULL,
+    created_at   DATETIME(6),
+    sent_at      DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- The relay scans pending rows (sent_at IS NULL) oldest first and the cleanup deletes by sent_at
+CREATE INDEX idx_order_outbox_sent_at_created_at ON order_outbox (sent_at, created_at);
+
+CREATE TABLE idempotency_records
+(
+    id              BINARY(16)   NOT NULL,
+    buyer_id        BINARY(16)   NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash    VARCHAR(64)  NOT NULL,
+    order_id        BINARY(16)   NOT NULL,
+    created_at      DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_idempotency_records_buyer_key UNIQUE (buyer_id, idempotency_key)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_idempotency_records_created_at ON idempotency_records (created_at);
@@ -0,0 +1,10 @@
+-- Rows are only relayed once available_at has passed. Events are available right away, a stock
+-- release is written before the reservation and held back until the order had time to be saved.
+ALTER TABLE order_outbox ADD COLUMN available_at DATETIME(6);
+UPDATE order_outbox SET available_at = created_at;
+ALTER TABLE order_outbox MODIFY available_at DATETIME(6) NOT NULL;
+
+DROP INDEX idx_order_outbox_sent_at_created_at ON order_outbox;
+CREATE INDEX idx_order_outbox_sent_at_available_at ON order_outbox (sent_at, available_at);
+-- The pending release of a reservation is cancelled or brought forward by its aggregate ID
+CREATE INDEX idx_order_outbox_aggregate_id ON order_outbox (aggregate_id);
@@ -0,0 +1,206 @@
+package marketplace.orderservice.config;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwkSetManagerTest {
+
+    private static final Duration NEVER = Duration.ofHours(1);
+    private static final Duration RETRY_INTERVAL = Duration.ofMillis(50);
+
+    private static RSAKey firstKey;
+    private static RSAKey secondKey;
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private volatile String body;
+    private volatile boolean failing;
+    private HttpServer server;
+    private JwkSetManager manager;
+
+    @BeforeAll
+    static void generateKeys() throws JOSEException {
+        firstKey = new RSAKeyGenerator(2048).keyID("first").generate();
+        secondKey = new RSAKeyGenerator(2048).keyID("second").generate();
+    }
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/certs", exchange -> {
+            requests.incrementAndGet();
+            boolean fail = failing || failuresLeft.getAndUpdate(left -> Math.max(0, left - 1)) > 0;
+            byte[] response = (fail ? "{\"error\":\"unavailable\"}" : body).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(fail ? 503 : 200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        if (manager != null) {
+            manager.close();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    void startLoadsTheKeysBeforeReturning() throws Exception {
+        serve(firstKey);
+        manager = manager(NEVER, NEVER);
+
+        manager.start(Duration.ofSeconds(5));
+
+        assertThat(manager.isReady()).isTrue();
+        assertThat(manager.getLastRefresh()).isNotNull();
+        assertThat(keyIds(manager.get(byKeyId("first"), null))).containsExactly("first");
+        assertThat(requests).hasValue(1);
+    }
+
+    @Test
+    void startRetriesUntilTheEndpointAnswers() throws Exception {
+        serve(firstKey);
+        failuresLeft.set(2);
+        manager = manager(NEVER, NEVER);
+
+        manager.start(Duration.ofSeconds(5));
+
+        assertThat(manager.isReady()).isTrue();
+        assertThat(requests).hasValue(3);
+        assertThat(refreshes("failure")).isEqualTo(2);
+        assertThat(refreshes("success")).isEqualTo(1);
+    }
+
+    @Test
+    void startGivesUpAfterItsTimeoutAndKeepsRetryingInTheBackground() {
+        serve(firstKey);
+        failing = true;
+        manager = manager(NEVER, NEVER);
+
+        manager.start(Duration.ofMillis(200));
+
+        assertThat(manager.isReady()).isFalse();
+        assertThat(requests.get()).isGreaterThan(1);
+
+        failing = false;
+        awaitUntil(manager::isReady);
+    }
+
+    @Test
+    void unknownKeyIdRefetchesTheKeys() throws Exception {
+        serve(firstKey);
+        manager = manager(NEVER, Duration.ZERO);
+        manager.start(Duration.ofSeconds(5));
+
+        // Keycloak rotated its keys after the startup fetch
+        serve(firstKey, secondKey);
+
+        assertThat(keyIds(manager.get(byKeyId("second"), null))).containsExactly("second");
+        assertThat(requests).hasValue(2);
+    }
+
+    @Test
+    void unknownKeyIdRefetchIsRateLimited() throws Exception {
+        serve(firstKey);
+        manager = manager(NEVER, NEVER);
+        manager.start(Duration.ofSeconds(5));
+        serve(firstKey, secondKey);
+
+        // The startup fetch counts as the last attempt, so forged key ids cannot hammer the endpoint
+        assertThat(manager.get(byKeyId("second"), null)).isEmpty();
+        assertThat(manager.get(byKeyId("unknown"), null)).isEmpty();
+
+        assertThat(requests).hasValue(1);
+        assertThat(keyIds(manager.get(byKeyId("first"), null))).containsExactly("first");
+    }
+
+    @Test
+    void failedRefreshesKeepTheLastGoodKeys() throws Exception {
+        serve(firstKey);
+        manager = manager(RETRY_INTERVAL, Duration.ZERO);
+        manager.start(Duration.ofSeconds(5));
+
+        failing = true;
+        awaitUntil(() -> refreshes("failure") >= 1);
+        Instant lastGoodRefresh = manager.getLastRefresh();
+        awaitUntil(() -> refreshes("failure") >= 3);
+
+        assertThat(manager.isReady()).isTrue();
+        assertThat(manager.getLastRefresh()).isEqualTo(lastGoodRefresh);
+        assertThat(keyIds(manager.get(byKeyId("first"), null))).containsExactly("first");
+        // A refetch for an unknown key id that fails does not drop the keys either
+        assertThat(manager.get(byKeyId("second"), null)).isEmpty();
+        assertThat(keyIds(manager.get(byKeyId("first"), null))).containsExactly("first");
+    }
+
+    private JwkSetManager manager(Duration refreshInterval, Duration unknownKidMinInterval) {
+        try {
+            URI uri = URI.create("http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":"
+                    + server.getAddress().getPort() + "/certs");
+            return new JwkSetManager(uri.toURL(), meterRegistry, Duration.ofSeconds(1), Duration.ofSeconds(1),
+                    refreshInterval, RETRY_INTERVAL, unknownKidMinInterval);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void serve(RSAKey... keys) {
+        body = new JWKSet(Arrays.stream(keys).map(key -> (JWK) key.toPublicJWK()).toList()).toString();
+    }
+
+    private double refreshes(String outcome) {
+        return meterRegistry.get("jwt.jwks.refresh").tag("outcome", outcome).counter().count();
+    }
+
+    private static JWKSelector byKeyId(String keyId) {
+        return new JWKSelector(new JWKMatcher.Builder().keyID(keyId).build());
+    }
+
+    private static List<String> keyIds(List<JWK> keys) {
+        return keys.stream().map(JWK::getKeyID).toList();
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        Instant deadline = Instant.now().plusSeconds(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(Instant.now()).as("condition not met in time").isBefore(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package marketplace.orderservice.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    void productServiceUnavailableIsA503WithRetryAfter() {
+        var response = handler.handleProductServiceUnavailable(
+                new ProductServiceUnavailableException("Product service is busy", Duration.ofSeconds(10)));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("10");
+        assertThat(response.getBody().message()).isEqualTo("Product service is busy");
+    }
+
+    @Test
+    void retryAfterIsRoundedUpToWholeSeconds() {
+        var fraction = handler.handleProductServiceUnavailable(
+                new ProductServiceUnavailableException("busy", Duration.ofMillis(1500)));
+        var defaulted = handler.handleProductServiceUnavailable(new ProductServiceUnavailableException("busy"));
+
+        assertThat(fraction.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(defaulted.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    }
+
+    @Test
+    void otherOrderErrorsRemainBadRequests() {
+        var response = handler.handleOrderException(new OrderException("Order must contain at least one item"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getHeaders().containsKey(HttpHeaders.RETRY_AFTER)).isFalse();
+    }
+}
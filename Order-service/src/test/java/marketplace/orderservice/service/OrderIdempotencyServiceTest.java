@@ -0,0 +1,231 @@
+package marketplace.orderservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import marketplace.orderservice.dto.CreateOrderDto;
+import marketplace.orderservice.dto.IdempotentOrderResult;
+import marketplace.orderservice.dto.OrderItemDto;
+import marketplace.orderservice.entity.IdempotencyRecord;
+import marketplace.orderservice.entity.Order;
+import marketplace.orderservice.entity.OrderStaus;
+import marketplace.orderservice.exception.DuplicateIdempotencyKeyException;
+import marketplace.orderservice.exception.IdempotencyKeyMismatchException;
+import marketplace.orderservice.mapper.OrderMapper;
+import marketplace.orderservice.repository.IdempotencyRecordRepository;
+import marketplace.orderservice.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderIdempotencyServiceTest {
+
+    private static final String KEY = "checkout-42";
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository = mock(IdempotencyRecordRepository.class);
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final UUID buyerId = UUID.randomUUID();
+    private final CreateOrderDto request = request(2);
+    // Stands for the product lookups, stock reservation and insert done by OrderServiceImpl
+    private final AtomicInteger creations = new AtomicInteger();
+
+    private OrderIdempotencyService service = service(100);
+
+    @AfterEach
+    void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void firstRequestCreatesTheOrder() {
+        Order order = order();
+
+        IdempotentOrderResult result = service.createOrder(request, buyerId, KEY, creating(order)).block();
+
+        assertThat(result.replayed()).isFalse();
+        assertThat(result.order().id()).isEqualTo(order.getId());
+        assertThat(creations).hasValue(1);
+    }
+
+    @Test
+    void retryIsAnsweredWithTheStoredOrderWithoutCreatingAnother() {
+        Order order = order();
+        service.createOrder(request, buyerId, KEY, creating(order)).block();
+
+        IdempotentOrderResult retry = service.createOrder(request, buyerId, KEY, creating(order())).block();
+
+        assertThat(retry.replayed()).isTrue();
+        assertThat(retry.order().id()).isEqualTo(order.getId());
+        assertThat(creations).hasValue(1);
+        // Answered from memory, the table was only read by the first request
+        verify(idempotencyRecordRepository, times(1)).findByBuyerIdAndIdempotencyKey(buyerId, KEY);
+        assertThat(meterRegistry.get("orders.idempotency.replayed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void keyCreatedByAnotherInstanceIsReplayedFromTheDatabase() {
+        Order order = order();
+        storedInDatabase(KEY, request, order);
+
+        IdempotentOrderResult result = service.createOrder(request, buyerId, KEY, creating(order())).block();
+
+        assertThat(result.replayed()).isTrue();
+        assertThat(result.order().id()).isEqualTo(order.getId());
+        assertThat(creations).hasValue(0);
+    }
+
+    @Test
+    void keyReusedWithAnotherBodyIsRejected() {
+        service.createOrder(request, buyerId, KEY, creating(order())).block();
+
+        assertThatThrownBy(() -> service.createOrder(request(3), buyerId, KEY, creating(order())).block())
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+        assertThat(creations).hasValue(1);
+    }
+
+    @Test
+    void keyReusedWithAnotherBodyIsRejectedWhenFoundInTheDatabase() {
+        storedInDatabase(KEY, request, order());
+
+        assertThatThrownBy(() -> service.createOrder(request(3), buyerId, KEY, creating(order())).block())
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+        assertThat(creations).hasValue(0);
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForTheFirstRequest() throws Exception {
+        Order order = order();
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Function<IdempotencyRecord, Mono<Order>> slowCreation = record -> Mono.fromCallable(() -> {
+            creations.incrementAndGet();
+            creating.countDown();
+            assertThat(release.await(5, TimeUnit.SECONDS)).isTrue();
+            return order;
+        });
+
+        Future<IdempotentOrderResult> first = executor.submit(
+                () -> service.createOrder(request, buyerId, KEY, slowCreation).block());
+        assertThat(creating.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<IdempotentOrderResult> duplicate = executor.submit(
+                () -> service.createOrder(request, buyerId, KEY, slowCreation).block());
+        awaitCoalesced();
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).replayed()).isFalse();
+        IdempotentOrderResult coalesced = duplicate.get(5, TimeUnit.SECONDS);
+        assertThat(coalesced.replayed()).isTrue();
+        assertThat(coalesced.order().id()).isEqualTo(order.getId());
+        assertThat(creations).hasValue(1);
+    }
+
+    @Test
+    void evictedKeyIsFoundInTheDatabase() {
+        service = service(1);
+        Order order = order();
+        service.createOrder(request, buyerId, KEY, creating(order)).block();
+        // A second key pushes the first one out of the in-memory map
+        service.createOrder(request, buyerId, "checkout-43", creating(order())).block();
+        storedInDatabase(KEY, request, order);
+
+        IdempotentOrderResult retry = service.createOrder(request, buyerId, KEY, creating(order())).block();
+
+        assertThat(retry.replayed()).isTrue();
+        assertThat(retry.order().id()).isEqualTo(order.getId());
+        assertThat(creations).hasValue(2);
+        verify(idempotencyRecordRepository, times(2)).findByBuyerIdAndIdempotencyKey(buyerId, KEY);
+    }
+
+    @Test
+    void keyCommittedFirstByAnotherInstanceIsReplayed() {
+        Order winner = order();
+        Function<IdempotencyRecord, Mono<Order>> losingCreation = record -> {
+            creations.incrementAndGet();
+            // The other instance's record is visible once our insert hit the unique constraint
+            storedInDatabase(KEY, request, winner);
+            return Mono.error(new DuplicateIdempotencyKeyException(KEY));
+        };
+
+        IdempotentOrderResult result = service.createOrder(request, buyerId, KEY, losingCreation).block();
+
+        assertThat(result.replayed()).isTrue();
+        assertThat(result.order().id()).isEqualTo(winner.getId());
+    }
+
+    @Test
+    void failedCreationIsNotRemembered() {
+        service.createOrder(request, buyerId, KEY, record -> {
+            creations.incrementAndGet();
+            return Mono.error(new IllegalStateException("product-service unavailable"));
+        }).onErrorResume(e -> Mono.empty()).block();
+
+        IdempotentOrderResult retry = service.createOrder(request, buyerId, KEY, creating(order())).block();
+
+        assertThat(retry.replayed()).isFalse();
+        assertThat(creations).hasValue(2);
+    }
+
+    private OrderIdempotencyService service(int cacheSize) {
+        when(idempotencyRecordRepository.findByBuyerIdAndIdempotencyKey(any(), any())).thenReturn(Optional.empty());
+        return new OrderIdempotencyService(idempotencyRecordRepository, orderRepository, new OrderMapper(),
+                mock(PlatformTransactionManager.class), meterRegistry, cacheSize, 24);
+    }
+
+    private Function<IdempotencyRecord, Mono<Order>> creating(Order order) {
+        return record -> Mono.fromCallable(() -> {
+            creations.incrementAndGet();
+            record.setOrderId(order.getId());
+            return order;
+        });
+    }
+
+    private void storedInDatabase(String key, CreateOrderDto body, Order order) {
+        String requestHash = OrderIdempotencyService.fingerprint(body);
+        when(idempotencyRecordRepository.findByBuyerIdAndIdempotencyKey(buyerId, key)).thenReturn(Optional.of(
+                IdempotencyRecord.builder().buyerId(buyerId).idempotencyKey(key).requestHash(requestHash)
+                        .orderId(order.getId()).build()));
+        when(orderRepository.findWithItemsByIdAndBuyerId(order.getId(), buyerId)).thenReturn(Optional.of(order));
+    }
+
+    private void awaitCoalesced() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("orders.idempotency.coalesced").counter().count() < 1) {
+            assertThat(System.nanoTime()).as("duplicate request did not wait for the first one").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private CreateOrderDto request(int quantity) {
+        return new CreateOrderDto(List.of(new OrderItemDto(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"), quantity)));
+    }
+
+    private Order order() {
+        return Order.builder()
+                .id(UUID.randomUUID())
+                .buyerId(buyerId)
+                .status(OrderStaus.PENDING)
+                .totalAmount(new BigDecimal("20.00"))
+                .build();
+    }
+}
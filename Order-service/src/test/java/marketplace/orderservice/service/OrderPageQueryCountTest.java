@@ -0,0 +1,153 @@
+package marketplace.orderservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import marketplace.orderservice.dto.OrderPageDto;
+import marketplace.orderservice.dto.OrderResponseDto;
+import marketplace.orderservice.entity.Order;
+import marketplace.orderservice.entity.OrderItem;
+import marketplace.orderservice.entity.OrderStaus;
+import marketplace.orderservice.mapper.OrderMapper;
+import marketplace.orderservice.repository.IdempotencyRecordRepository;
+import marketplace.orderservice.repository.OrderItemRepository;
+import marketplace.orderservice.repository.OrderRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Guards the order listings against N+1 queries: a page is one query for the orders and one for the
+ * items of all of them, however many orders and items it holds.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class OrderPageQueryCountTest {
+
+    private static final int ITEMS_PER_ORDER = 3;
+
+    private final UUID buyerId = UUID.randomUUID();
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private OrderServiceImpl orderService;
+
+    @BeforeEach
+    void setUp() {
+        KafkaTemplate<String, String> kafkaTemplate = mock();
+        orderService = new OrderServiceImpl(orderRepository, orderItemRepository, mock(IdempotencyRecordRepository.class),
+                WebClient.builder(), new OrderMapper(), kafkaTemplate, mock(OutboxService.class),
+                mock(ProductCatalogReplica.class), mock(ProductLookupCoalescer.class), mock(ProductServiceResilience.class),
+                mock(ServiceTokenProvider.class), transactionManager, new SimpleMeterRegistry(), Schedulers.immediate(),
+                100, 8, 300000, 20, 100);
+
+        for (int i = 0; i < 30; i++) {
+            entityManager.persist(order(buyerId));
+            entityManager.persist(order(UUID.randomUUID()));
+        }
+        entityManager.flush();
+        // Pages must come from the database, not from the entities persisted above
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 25})
+    void myOrdersPageTakesTwoStatementsWhateverItsSize(int size) {
+        OrderPageDto page = orderService.getMyOrders(buyerId, null, size).data();
+
+        assertThat(page.items()).hasSize(size)
+                .allSatisfy(order -> assertThat(order.buyerId()).isEqualTo(buyerId));
+        assertItemsLoaded(page);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void myOrdersNextPageTakesTwoStatements() {
+        String cursor = orderService.getMyOrders(buyerId, null, 20).data().nextCursor();
+        statistics.clear();
+
+        OrderPageDto page = orderService.getMyOrders(buyerId, cursor, 20).data();
+
+        assertThat(page.items()).hasSize(10);
+        assertThat(page.hasMore()).isFalse();
+        assertItemsLoaded(page);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void allOrdersPageTakesTwoStatementsWhateverItsSize(int size) {
+        OrderPageDto page = orderService.getAllOrders(null, size).data();
+
+        assertThat(page.items()).hasSize(size);
+        assertItemsLoaded(page);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void allOrdersNextPageTakesTwoStatements() {
+        String cursor = orderService.getAllOrders(null, 50).data().nextCursor();
+        statistics.clear();
+
+        OrderPageDto page = orderService.getAllOrders(cursor, 50).data();
+
+        assertThat(page.items()).hasSize(10);
+        assertItemsLoaded(page);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    private static void assertItemsLoaded(OrderPageDto page) {
+        assertThat(page.items()).extracting(OrderResponseDto::items)
+                .allSatisfy(items -> assertThat(items).hasSize(ITEMS_PER_ORDER));
+    }
+
+    private static Order order(UUID buyerId) {
+        Order order = Order.builder()
+                .buyerId(buyerId)
+                .status(OrderStaus.PENDING)
+                .totalAmount(new BigDecimal("30.00"))
+                .build();
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            order.addItem(OrderItem.builder()
+                    .productName("Product " + i)
+                    .productPrice(new BigDecimal("10.00"))
+                    .quantity(1)
+                    .totalPrice(new BigDecimal("10.00"))
+                    .build());
+        }
+        return order;
+    }
+}
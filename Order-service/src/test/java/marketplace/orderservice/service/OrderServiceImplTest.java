@@ -0,0 +1,100 @@
+package marketplace.orderservice.service;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import marketplace.orderservice.exception.OrderException;
+import marketplace.orderservice.exception.ProductServiceUnavailableException;
+import marketplace.orderservice.mapper.OrderMapper;
+import marketplace.orderservice.repository.IdempotencyRecordRepository;
+import marketplace.orderservice.repository.OrderItemRepository;
+import marketplace.orderservice.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderServiceImplTest {
+
+    private final ProductCatalogReplica productCatalogReplica = mock();
+    private final ProductLookupCoalescer productLookupCoalescer = mock();
+    private final ProductServiceResilience productServiceResilience = mock();
+    private OrderServiceImpl orderService;
+
+    @BeforeEach
+    void setUp() {
+        KafkaTemplate<String, String> kafkaTemplate = mock();
+        orderService = new OrderServiceImpl(mock(OrderRepository.class), mock(OrderItemRepository.class),
+                mock(IdempotencyRecordRepository.class), WebClient.builder(), new OrderMapper(), kafkaTemplate,
+                mock(OutboxService.class), productCatalogReplica, productLookupCoalescer, productServiceResilience,
+                mock(ServiceTokenProvider.class), mock(PlatformTransactionManager.class), new SimpleMeterRegistry(),
+                Schedulers.immediate(), 100, 8, 300000, 20, 100);
+        when(productServiceResilience.getOpenStateDuration()).thenReturn(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void openCircuitBreakerIsReportedAsUnavailableUntilItProbesAgain() {
+        CircuitBreaker breaker = CircuitBreaker.ofDefaults("product-service");
+        breaker.transitionToOpenState();
+        lookupFailsWith(CallNotPermittedException.createCallNotPermittedException(breaker));
+
+        assertThatThrownBy(() -> orderService.getProductById(UUID.randomUUID(), "token"))
+                .isInstanceOfSatisfying(ProductServiceUnavailableException.class,
+                        e -> assertThat(e.getRetryAfter()).isEqualTo(Duration.ofSeconds(10)));
+    }
+
+    @Test
+    void fullBulkheadIsReportedAsUnavailable() {
+        lookupFailsWith(BulkheadFullException.createBulkheadFullException(Bulkhead.ofDefaults("product-service")));
+
+        assertThatThrownBy(() -> orderService.getProductById(UUID.randomUUID(), "token"))
+                .isInstanceOf(ProductServiceUnavailableException.class);
+    }
+
+    @Test
+    void exhaustedTimeoutBudgetIsReportedAsUnavailable() {
+        lookupFailsWith(new TimeoutException("Did not observe any item or terminal signal"));
+
+        assertThatThrownBy(() -> orderService.getProductById(UUID.randomUUID(), "token"))
+                .isInstanceOf(ProductServiceUnavailableException.class);
+    }
+
+    @Test
+    void unexpectedErrorsStayOrderErrors() {
+        lookupFailsWith(new IllegalStateException("boom"));
+
+        assertThatThrownBy(() -> orderService.getProductById(UUID.randomUUID(), "token"))
+                .isExactlyInstanceOf(OrderException.class);
+    }
+
+    @Test
+    void catalogReplicaThatIsStillLoadingIsReportedAsUnavailable() {
+        when(productCatalogReplica.isEnabled()).thenReturn(true);
+        when(productCatalogReplica.isReady()).thenReturn(false);
+        when(productCatalogReplica.isHttpFallbackEnabled()).thenReturn(false);
+
+        assertThatThrownBy(() -> orderService.getProductsByIds(List.of(UUID.randomUUID()), "token"))
+                .isInstanceOf(ProductServiceUnavailableException.class)
+                .hasMessageContaining("catalog is not available yet");
+    }
+
+    private void lookupFailsWith(Throwable error) {
+        when(productLookupCoalescer.lookup(any(), any())).thenReturn(Mono.error(error));
+    }
+}
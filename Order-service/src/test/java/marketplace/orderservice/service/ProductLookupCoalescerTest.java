@@ -0,0 +1,200 @@
+package marketplace.orderservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import marketplace.orderservice.dto.ProductDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductLookupCoalescerTest {
+
+    private static final int CALLERS = 8;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+    private final UUID productId = UUID.randomUUID();
+    private final AtomicInteger subscriptions = new AtomicInteger();
+
+    @AfterEach
+    void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneLoaderSubscription() throws Exception {
+        ProductLookupCoalescer coalescer = new ProductLookupCoalescer(meterRegistry, 1000);
+        Sinks.One<ProductDto> response = Sinks.one();
+        Function<UUID, Mono<ProductDto>> loader = id -> Mono.defer(() -> {
+            subscriptions.incrementAndGet();
+            return response.asMono();
+        });
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<CompletableFuture<ProductDto>>> callers = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            callers.add(executor.submit(() -> {
+                start.await();
+                return coalescer.lookup(productId, loader).toFuture();
+            }));
+        }
+        start.countDown();
+        List<CompletableFuture<ProductDto>> results = new ArrayList<>();
+        for (Future<CompletableFuture<ProductDto>> caller : callers) {
+            results.add(caller.get(5, TimeUnit.SECONDS));
+        }
+        response.tryEmitValue(product(productId));
+
+        for (CompletableFuture<ProductDto> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS).id()).isEqualTo(productId);
+        }
+        assertThat(subscriptions).hasValue(1);
+        assertThat(issued()).isEqualTo(1);
+        assertThat(coalesced()).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void resultIsSharedUntilItsTtlExpires() throws Exception {
+        ProductLookupCoalescer coalescer = new ProductLookupCoalescer(meterRegistry, 100);
+
+        assertThat(coalescer.lookup(productId, this::load).block()).isNotNull();
+        assertThat(coalescer.lookup(productId, this::load).block()).isNotNull();
+        assertThat(subscriptions).hasValue(1);
+
+        awaitUntilLoadedAgain(coalescer);
+        assertThat(issued()).isEqualTo(2);
+        assertThat(coalesced()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void zeroTtlOnlySharesLookupsInFlight() {
+        ProductLookupCoalescer coalescer = new ProductLookupCoalescer(meterRegistry, 0);
+
+        coalescer.lookup(productId, this::load).block();
+        coalescer.lookup(productId, this::load).block();
+
+        assertThat(subscriptions).hasValue(2);
+        assertThat(coalesced()).isZero();
+    }
+
+    @Test
+    void failuresAreNotShared() {
+        ProductLookupCoalescer coalescer = new ProductLookupCoalescer(meterRegistry, 60_000);
+        Function<UUID, Mono<ProductDto>> failing = id -> Mono.defer(() -> {
+            subscriptions.incrementAndGet();
+            return Mono.error(new IllegalStateException("product-service unavailable"));
+        });
+
+        assertThatThrownBy(() -> coalescer.lookup(productId, failing).block())
+                .hasMessageContaining("product-service unavailable");
+        assertThat(coalescer.lookup(productId, this::load).block()).isNotNull();
+
+        assertThat(subscriptions).hasValue(2);
+        assertThat(issued()).isEqualTo(2);
+        assertThat(coalesced()).isZero();
+    }
+
+    @Test
+    void missingProductIsSharedAsNotFound() {
+        ProductLookupCoalescer coalescer = new ProductLookupCoalescer(meterRegistry, 60_000);
+        Function<UUID, Mono<ProductDto>> notFound = id -> Mono.defer(() -> {
+            subscriptions.incrementAndGet();
+            return Mono.empty();
+        });
+
+        assertThat(coalescer.lookup(productId, notFound).blockOptional()).isEmpty();
+        assertThat(coalescer.lookup(productId, notFound).blockOptional()).isEmpty();
+        assertThat(subscriptions).hasValue(1);
+    }
+
+    @Test
+    void batchOnlyLoadsTheProductsNobodyIsFetching() {
+        ProductLookupCoalescer coalescer = new ProductLookupCoalescer(meterRegistry, 60_000);
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+        Sinks.One<Map<UUID, ProductDto>> firstResponse = Sinks.one();
+        List<List<UUID>> batches = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<Map<UUID, ProductDto>> first = coalescer.lookupAll(List.of(a, b), ids -> {
+            batches.add(ids);
+            return firstResponse.asMono();
+        }).toFuture();
+        CompletableFuture<Map<UUID, ProductDto>> second = coalescer.lookupAll(List.of(b, c), ids -> {
+            batches.add(ids);
+            return Mono.just(Map.of(c, product(c)));
+        }).toFuture();
+        firstResponse.tryEmitValue(Map.of(a, product(a), b, product(b)));
+
+        assertThat(batches).containsExactly(List.of(a, b), List.of(c));
+        assertThat(first.join()).containsOnlyKeys(a, b);
+        assertThat(second.join()).containsOnlyKeys(b, c);
+        assertThat(issued()).isEqualTo(3);
+        assertThat(coalesced()).isEqualTo(1);
+    }
+
+    @Test
+    void callerGoingAwayDoesNotCancelTheSharedLookup() {
+        ProductLookupCoalescer coalescer = new ProductLookupCoalescer(meterRegistry, 60_000);
+        Sinks.One<ProductDto> response = Sinks.one();
+        Function<UUID, Mono<ProductDto>> loader = id -> Mono.defer(() -> {
+            subscriptions.incrementAndGet();
+            return response.asMono();
+        });
+
+        coalescer.lookup(productId, loader).subscribe().dispose();
+        CompletableFuture<ProductDto> waiting = coalescer.lookup(productId, loader).toFuture();
+        response.tryEmitValue(product(productId));
+
+        assertThat(waiting.join().id()).isEqualTo(productId);
+        assertThat(subscriptions).hasValue(1);
+    }
+
+    private Mono<ProductDto> load(UUID id) {
+        return Mono.fromCallable(() -> {
+            subscriptions.incrementAndGet();
+            return product(id);
+        });
+    }
+
+    private void awaitUntilLoadedAgain(ProductLookupCoalescer coalescer) throws InterruptedException {
+        Instant deadline = Instant.now().plusSeconds(5);
+        while (subscriptions.get() < 2) {
+            assertThat(Instant.now()).as("shared result did not expire").isBefore(deadline);
+            Thread.sleep(20);
+            coalescer.lookup(productId, this::load).block();
+        }
+    }
+
+    private double issued() {
+        return meterRegistry.get("orders.product-lookup.issued").counter().count();
+    }
+
+    private double coalesced() {
+        return meterRegistry.get("orders.product-lookup.coalesced").counter().count();
+    }
+
+    private static ProductDto product(UUID id) {
+        return new ProductDto(id, "Mug", null, new BigDecimal("9.90"), 3, null, "kitchen", UUID.randomUUID(),
+                null, null);
+    }
+}
@@ -0,0 +1,337 @@
+package marketplace.orderservice.service;
+
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import marketplace.orderservice.config.ProductServiceResilienceConfig;
+import marketplace.orderservice.service.ProductServiceResilience.Operation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+/**
+ * The latency bookkeeping runs against a mock clock. The breaker, bulkhead, timeout and hedge run
+ * against a product-service stub on a local HTTP server.
+ */
+class ProductServiceResilienceTest {
+
+    private static final Duration MAX_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration LATENCY_WINDOW = Duration.ofMinutes(2);
+
+    private final MockClock clock = new MockClock();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock);
+
+    @Test
+    void budgetIsTheMaximumUntilEnoughSamplesAreSeen() {
+        ProductServiceResilience resilience = resilience(10, MAX_TIMEOUT);
+
+        respondIn(resilience, Operation.PRODUCT_LOOKUP, Duration.ofMillis(100), 9);
+
+        assertThat(resilience.timeoutBudget(Operation.PRODUCT_LOOKUP)).isEqualTo(MAX_TIMEOUT);
+        assertThat(resilience.hedgeDelay(Operation.PRODUCT_LOOKUP)).isEqualTo(MAX_TIMEOUT);
+    }
+
+    @Test
+    void budgetIsAMultipleOfTheObservedP99() {
+        ProductServiceResilience resilience = resilience(10, MAX_TIMEOUT);
+
+        respondIn(resilience, Operation.PRODUCT_LOOKUP, Duration.ofMillis(100), 10);
+
+        assertThat(resilience.timeoutBudget(Operation.PRODUCT_LOOKUP).toMillis()).isCloseTo(300L, withinPercentage(5));
+        assertThat(resilience.hedgeDelay(Operation.PRODUCT_LOOKUP).toMillis()).isCloseTo(100L, withinPercentage(5));
+    }
+
+    @Test
+    void budgetFallsBackToTheMaximumOnceTheWindowHasPassed() {
+        ProductServiceResilience resilience = resilience(10, MAX_TIMEOUT);
+        respondIn(resilience, Operation.PRODUCT_LOOKUP, Duration.ofMillis(100), 10);
+
+        // After an idle period the percentiles read 0, which must not shrink the budget to its minimum
+        clock.add(LATENCY_WINDOW.multipliedBy(2));
+
+        assertThat(resilience.timeoutBudget(Operation.PRODUCT_LOOKUP)).isEqualTo(MAX_TIMEOUT);
+        assertThat(resilience.hedgeDelay(Operation.PRODUCT_LOOKUP)).isEqualTo(MAX_TIMEOUT);
+    }
+
+    @Test
+    void samplesFromBeforeTheWindowDoNotCountTowardsTheMinimum() {
+        ProductServiceResilience resilience = resilience(10, MAX_TIMEOUT);
+        respondIn(resilience, Operation.PRODUCT_LOOKUP, Duration.ofMillis(100), 9);
+        clock.add(LATENCY_WINDOW.multipliedBy(2));
+
+        respondIn(resilience, Operation.PRODUCT_LOOKUP, Duration.ofMillis(100), 1);
+
+        assertThat(resilience.timeoutBudget(Operation.PRODUCT_LOOKUP)).isEqualTo(MAX_TIMEOUT);
+    }
+
+    @Test
+    void failedRequestsAreRecorded() {
+        ProductServiceResilience resilience = resilience(10, MAX_TIMEOUT);
+
+        for (int i = 0; i < 10; i++) {
+            Mono<String> failing = Mono.fromCallable(() -> {
+                clock.add(Duration.ofMillis(400));
+                throw new IllegalStateException("connection reset");
+            });
+            assertThatThrownBy(() -> resilience.protect(Operation.PRODUCT_LOOKUP, failing).block())
+                    .hasMessageContaining("connection reset");
+        }
+
+        assertThat(resilience.timeoutBudget(Operation.PRODUCT_LOOKUP).toMillis()).isCloseTo(1200L, withinPercentage(5));
+    }
+
+    @Test
+    void timeoutsAreRecordedAtTheBudget() {
+        ProductServiceResilience resilience = resilience(10, Duration.ofMillis(100));
+
+        assertThatThrownBy(() -> resilience.protect(Operation.PRODUCT_LOOKUP, Mono.never()).block())
+                .hasCauseInstanceOf(TimeoutException.class);
+
+        Timer latency = latency(Operation.PRODUCT_LOOKUP);
+        assertThat(latency.count()).isEqualTo(1);
+        assertThat(latency.max(TimeUnit.MILLISECONDS)).isEqualTo(100);
+    }
+
+    @Test
+    void eachOperationHasItsOwnLatency() {
+        ProductServiceResilience resilience = resilience(10, MAX_TIMEOUT);
+
+        respondIn(resilience, Operation.PRODUCT_BATCH_LOOKUP, Duration.ofMillis(1000), 10);
+        respondIn(resilience, Operation.PRODUCT_LOOKUP, Duration.ofMillis(100), 10);
+
+        assertThat(resilience.timeoutBudget(Operation.PRODUCT_LOOKUP).toMillis()).isCloseTo(300L, withinPercentage(5));
+        assertThat(resilience.timeoutBudget(Operation.PRODUCT_BATCH_LOOKUP).toMillis()).isCloseTo(3000L, withinPercentage(5));
+        assertThat(resilience.timeoutBudget(Operation.STOCK_RESERVATION)).isEqualTo(MAX_TIMEOUT);
+        assertThat(latency(Operation.STOCK_RESERVATION).count()).isZero();
+    }
+
+    @Nested
+    class AgainstAProductServiceStub {
+
+        private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        private final AtomicInteger requests = new AtomicInteger();
+        private final Queue<Long> nextDelaysMs = new ConcurrentLinkedQueue<>();
+        private final ExecutorService executor = Executors.newCachedThreadPool();
+        private volatile long delayMs;
+        private volatile int status = 200;
+        private volatile CountDownLatch held;
+        private HttpServer server;
+        private WebClient webClient;
+
+        @BeforeEach
+        void startServer() throws IOException {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            server.createContext("/products", exchange -> {
+                requests.incrementAndGet();
+                try {
+                    Long nextDelay = nextDelaysMs.poll();
+                    Thread.sleep(nextDelay != null ? nextDelay : delayMs);
+                    CountDownLatch latch = held;
+                    if (latch != null) {
+                        latch.await(5, TimeUnit.SECONDS);
+                    }
+                    byte[] response = "{\"name\":\"Mug\"}".getBytes(StandardCharsets.UTF_8);
+                    exchange.getResponseHeaders().add("Content-Type", "application/json");
+                    exchange.sendResponseHeaders(status, response.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(response);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (IOException e) {
+                    // The client gave up on this request, e.g. a hedge that lost
+                } finally {
+                    exchange.close();
+                }
+            });
+            server.setExecutor(executor);
+            server.start();
+            webClient = WebClient.create("http://" + InetAddress.getLoopbackAddress().getHostAddress()
+                    + ":" + server.getAddress().getPort());
+        }
+
+        @AfterEach
+        void stopServer() {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+
+        @Test
+        void requestsAreCutOffAtAMultipleOfTheObservedP99() {
+            ProductServiceResilience resilience = resilience(breaker(), Bulkhead.ofDefaults("product-service"), false, 50);
+            delayMs = 50;
+            for (int i = 0; i < 20; i++) {
+                assertThat(call(resilience).block()).contains("Mug");
+            }
+
+            Duration budget = resilience.timeoutBudget(Operation.PRODUCT_LOOKUP);
+            assertThat(budget.toMillis()).isBetween(150L, 900L);
+
+            delayMs = 3000;
+            long start = System.nanoTime();
+            assertThatThrownBy(() -> call(resilience).block()).hasCauseInstanceOf(TimeoutException.class);
+            assertThat(Duration.ofNanos(System.nanoTime() - start))
+                    .isGreaterThanOrEqualTo(budget)
+                    .isLessThan(budget.plusMillis(500));
+        }
+
+        @Test
+        void breakerOpensOnFailuresAndProbesAgainHalfOpen() {
+            CircuitBreaker breaker = breaker();
+            ProductServiceResilience resilience = resilience(breaker, Bulkhead.ofDefaults("product-service"), false);
+            status = 500;
+            for (int i = 0; i < 4; i++) {
+                assertThatThrownBy(() -> call(resilience).block())
+                        .isInstanceOf(WebClientResponseException.InternalServerError.class);
+            }
+            assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+            int sent = requests.get();
+            assertThatThrownBy(() -> call(resilience).block()).isInstanceOf(CallNotPermittedException.class);
+            assertThat(requests.get()).as("an open breaker does not call product-service").isEqualTo(sent);
+
+            awaitUntil(() -> breaker.getState() == CircuitBreaker.State.HALF_OPEN);
+            status = 200;
+            assertThat(call(resilience).block()).contains("Mug");
+            assertThat(call(resilience).block()).contains("Mug");
+            assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        }
+
+        @Test
+        void bulkheadRejectsCallsOverTheLimit() throws Exception {
+            CircuitBreaker breaker = breaker();
+            Bulkhead bulkhead = new ProductServiceResilienceConfig().productServiceBulkhead(registry, 2, 0);
+            ProductServiceResilience resilience = resilience(breaker, bulkhead, false);
+            held = new CountDownLatch(1);
+
+            CompletableFuture<String> first = call(resilience).toFuture();
+            CompletableFuture<String> second = call(resilience).toFuture();
+            awaitUntil(() -> requests.get() == 2);
+
+            assertThatThrownBy(() -> call(resilience).block()).isInstanceOf(BulkheadFullException.class);
+            assertThat(requests.get()).isEqualTo(2);
+
+            held.countDown();
+            assertThat(first.get(5, TimeUnit.SECONDS)).contains("Mug");
+            assertThat(second.get(5, TimeUnit.SECONDS)).contains("Mug");
+            // A full bulkhead is local load, it must not count against product-service
+            assertThat(breaker.getMetrics().getNumberOfFailedCalls()).isZero();
+        }
+
+        @Test
+        void hedgedRequestWinsAgainstASlowPrimary() {
+            ProductServiceResilience resilience = resilience(breaker(), Bulkhead.ofDefaults("product-service"), true);
+            for (int i = 0; i < 10; i++) {
+                assertThat(call(resilience).block()).contains("Mug");
+            }
+            assertThat(hedges("sent").count()).as("no hedge before the latency is known").isZero();
+
+            nextDelaysMs.add(3000L);
+            long start = System.nanoTime();
+            assertThat(call(resilience).block()).contains("Mug");
+
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(2000));
+            assertThat(hedges("sent").count()).isEqualTo(1);
+            assertThat(hedges("won").count()).isEqualTo(1);
+        }
+
+        private CircuitBreaker breaker() {
+            return new ProductServiceResilienceConfig()
+                    .productServiceCircuitBreaker(registry, 50, 2000, 80, 4, 4, 300, 2);
+        }
+
+        private ProductServiceResilience resilience(CircuitBreaker breaker, Bulkhead bulkhead, boolean hedging) {
+            return resilience(breaker, bulkhead, hedging, 1000);
+        }
+
+        private ProductServiceResilience resilience(CircuitBreaker breaker, Bulkhead bulkhead, boolean hedging,
+                                                    long minTimeoutMs) {
+            return new ProductServiceResilience(breaker, bulkhead, registry, minTimeoutMs, 5000, 3,
+                    LATENCY_WINDOW.toMillis(), 10, hedging, 50);
+        }
+
+        private Mono<String> call(ProductServiceResilience resilience) {
+            return resilience.protect(Operation.PRODUCT_LOOKUP, webClient.get()
+                    .uri("/products/{id}", UUID.randomUUID())
+                    .retrieve()
+                    .bodyToMono(String.class));
+        }
+
+        private Counter hedges(String outcome) {
+            return registry.get("orders.product-client.hedges." + outcome).tag("operation", "product-lookup").counter();
+        }
+    }
+
+    private ProductServiceResilience resilience(long minSamples, Duration maxTimeout) {
+        return new ProductServiceResilience(CircuitBreaker.ofDefaults("product-service"),
+                Bulkhead.ofDefaults("product-service"), meterRegistry, 50, maxTimeout.toMillis(), 3,
+                LATENCY_WINDOW.toMillis(), minSamples, false, 50);
+    }
+
+    private void respondIn(ProductServiceResilience resilience, Operation operation, Duration latency, int times) {
+        for (int i = 0; i < times; i++) {
+            Mono<String> response = Mono.fromCallable(() -> {
+                clock.add(latency);
+                return "ok";
+            });
+            assertThat(resilience.protect(operation, response).block()).isEqualTo("ok");
+        }
+    }
+
+    private Timer latency(Operation operation) {
+        return meterRegistry.get("orders.product-client.latency")
+                .tag("operation", switch (operation) {
+                    case PRODUCT_LOOKUP -> "product-lookup";
+                    case PRODUCT_BATCH_LOOKUP -> "product-batch-lookup";
+                    case STOCK_RESERVATION -> "stock-reservation";
+                })
+                .timer();
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        Instant deadline = Instant.now().plusSeconds(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(Instant.now()).as("condition not met in time").isBefore(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -17,7 +17,7 @@ import java.util.UUID;
 @NoArgsConstructor
 public class Payment{
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
 
     UUID orderId;
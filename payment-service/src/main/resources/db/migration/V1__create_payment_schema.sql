@@ -0,0 +1,12 @@
+CREATE TABLE payment
+(
+    id       BINARY(16) NOT NULL,
+    order_id BINARY(16),
+    amount   DECIMAL(38, 2),
+    status   ENUM ('SUCESS', 'FAILED'),
+    paid_at  DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- Payments are looked up by the order they settle
+CREATE INDEX idx_payment_order_id ON payment (order_id);
@@ -0,0 +1,25 @@
+package com.marketplace.productservice.config;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * Decodes and validates each distinct token once; repeated requests with the same token get the
+ * cached {@link Jwt} until the token expires.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final JwtTokenCache<Jwt> cache;
+
+    public CachingJwtDecoder(JwtDecoder delegate, JwtTokenCache<Jwt> cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        return cache.get(token, delegate::decode);
+    }
+}
@@ -1,5 +1,6 @@
 package com.marketplace.productservice.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
@@ -11,6 +12,8 @@ import org.springframework.security.oauth2.server.resource.authentication.JwtAut
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -18,6 +21,7 @@ import java.util.stream.Stream;
 
 /**
  * JWT to Spring Security authentication token converter.
+ * Authorities and principal name are computed once per token and reused until the token expires.
  */
 @Component
 public class JwtAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
@@ -30,12 +34,28 @@ public class JwtAuthenticationConverter implements Converter<Jwt, AbstractAuthen
     @Value("${jwt.auth.converter.resource-id}")
     private String resourceId;
 
+    private final JwtTokenCache<ConvertedJwt> convertedTokens;
+
+    private record ConvertedJwt(Collection<GrantedAuthority> authorities, String principalName, Instant expiresAt) {
+    }
+
+    public JwtAuthenticationConverter(MeterRegistry meterRegistry,
+                                      @Value("${jwt.cache.maximum-size:10000}") long maximumSize,
+                                      @Value("${jwt.cache.max-ttl-seconds:300}") long maxTtlSeconds) {
+        this.convertedTokens = new JwtTokenCache<>("jwt.converted", meterRegistry, maximumSize,
+                Duration.ofSeconds(maxTtlSeconds), ConvertedJwt::expiresAt);
+    }
+
     @Override
     public AbstractAuthenticationToken convert(Jwt source) {
-        Collection<GrantedAuthority> authorities = Stream
-                .concat(jwtGrantedAuthoritiesConverter.convert(source).stream(), extractResourceRoles(source).stream())
-                .toList();
-        return new JwtAuthenticationToken(source, authorities, getPrincipalName(source));
+        ConvertedJwt converted = convertedTokens.get(source.getTokenValue(), token -> {
+            Collection<GrantedAuthority> authorities = Stream
+                    .concat(jwtGrantedAuthoritiesConverter.convert(source).stream(), extractResourceRoles(source).stream())
+                    .toList();
+            return new ConvertedJwt(authorities, getPrincipalName(source), source.getExpiresAt());
+        });
+        // A new token per request: Spring Security attaches request details to it
+        return new JwtAuthenticationToken(source, converted.authorities(), converted.principalName());
     }
 
     private String getPrincipalName(Jwt jwt) {
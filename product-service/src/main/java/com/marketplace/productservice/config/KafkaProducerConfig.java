@@ -0,0 +1,68 @@
+package com.marketplace.productservice.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.config.TopicConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class KafkaProducerConfig {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers = "localhost:9092";
+
+    public Map<String, Object> producerConfig() {
+        Map<String, Object> properties = new HashMap<>();
+
+        properties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        properties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        properties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        properties.put(ProducerConfig.ACKS_CONFIG, "all");
+        // Keeps the per-product order of upserts and deletes intact across retries
+        properties.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+
+        return properties;
+    }
+
+    @Bean
+    public ProducerFactory<String, String> producerFactory() {
+        return new DefaultKafkaProducerFactory<>(producerConfig());
+    }
+
+    @Bean
+    public KafkaTemplate<String, String> kafkaTemplate(ProducerFactory<String, String> producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
+    }
+
+    @Bean
+    public NewTopic productCatalogTopic(@Value("${product.catalog.topic-partitions:3}") int partitions,
+                                        @Value("${product.catalog.topic-replicas:1}") int replicas) {
+        return TopicBuilder.name(KafkaTopics.PRODUCT_CATALOG)
+                .partitions(partitions)
+                .replicas(replicas)
+                .compact()
+                .build();
+    }
+
+    @Bean
+    public NewTopic productInvalidationsTopic(@Value("${product.invalidation.topic-partitions:3}") int partitions,
+                                              @Value("${product.invalidation.topic-replicas:1}") int replicas,
+                                              @Value("${product.invalidation.retention-ms:3600000}") long retentionMs) {
+        // Replicas only read new messages, so nothing needs to be kept for long
+        return TopicBuilder.name(KafkaTopics.PRODUCT_INVALIDATIONS)
+                .partitions(partitions)
+                .replicas(replicas)
+                .config(TopicConfig.RETENTION_MS_CONFIG, String.valueOf(retentionMs))
+                .build();
+    }
+}
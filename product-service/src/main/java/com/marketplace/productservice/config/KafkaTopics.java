@@ -0,0 +1,24 @@
+package com.marketplace.productservice.config;
+
+public final class KafkaTopics {
+    private KafkaTopics() {
+    }
+
+    /**
+     * Log-compacted topic keyed by product ID. The latest value per key is the current product,
+     * a null value (tombstone) means the product was deleted.
+     */
+    public static final String PRODUCT_CATALOG = "product-catalog";
+
+    /**
+     * Short-lived topic keyed by product ID. Every product-service replica reads it to drop cached
+     * copies of products changed by another replica.
+     */
+    public static final String PRODUCT_INVALIDATIONS = "product-invalidations";
+
+    /**
+     * Keyed by reservation ID and written by order-service through its outbox. Each message releases
+     * a stock reservation whose order was not created.
+     */
+    public static final String STOCK_RELEASE = "stock-release";
+}
@@ -1,11 +1,22 @@
 package com.marketplace.productservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.marketplace.productservice.controller.dto.ApiResponseDTO;
+import com.marketplace.productservice.controller.dto.ProductBatchRequestDto;
 import com.marketplace.productservice.controller.dto.ProductDto;
+import com.marketplace.productservice.controller.dto.ProductFacetsDto;
 import com.marketplace.productservice.controller.dto.ProductFilterCriteria;
+import com.marketplace.productservice.controller.dto.ProductImportEventDto;
+import com.marketplace.productservice.controller.dto.ProductImportFormat;
+import com.marketplace.productservice.controller.dto.ProductPageDto;
+import com.marketplace.productservice.controller.dto.ProductSort;
 import com.marketplace.productservice.controller.dto.ProductUpdateDto;
+import com.marketplace.productservice.controller.dto.StockReleaseRequestDto;
+import com.marketplace.productservice.controller.dto.StockReservationRequestDto;
 import com.marketplace.productservice.entity.Product;
+import com.marketplace.productservice.exception.ErrorResponse;
 import com.marketplace.productservice.service.IProductService;
+import com.marketplace.productservice.service.ProductImportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,16 +26,35 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/products")
@@ -33,6 +63,8 @@ import org.springframework.web.bind.annotation.*;
 public class ProductController {
 
     private final IProductService productService;
+    private final ProductImportService productImportService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     @Operation(
@@ -60,7 +92,7 @@ public class ProductController {
                                               "data": {
                                                 "content": [
                                                   {
-                                                    "id": "prod-001",
+                                                    "id": "0192a4e2-7c1a-7b3e-9f10-3c5d2e8a4b01",
                                                     "name": "Smartphone Samsung Galaxy S24",
                                                     "description": "Smartphone with 6.1 inch display",
                                                     "price": 899.99,
@@ -72,7 +104,7 @@ public class ProductController {
                                                     "updatedAt": "2024-01-15T10:30:00"
                                                   },
                                                   {
-                                                    "id": "prod-002",
+                                                    "id": "0192a4e2-7c1a-7b3f-a2c4-81e6f0d93c17",
                                                     "name": "Laptop Dell XPS 13",
                                                     "description": "Ultrabook laptop with Intel i7 processor",
                                                     "price": 1299.99,
@@ -146,10 +178,204 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
+    @GetMapping(params = "cursor")
+    @Operation(
+            summary = "Get products by cursor",
+            description = "Cursor-based version of the product listing, selected by passing the 'cursor' parameter (empty for "
+                    + "the first page). Accepts the same filters, skips the total count and stays equally fast on deep pages. "
+                    + "Pass the returned 'nextCursor' with the same sort to get the next page.",
+            parameters = {
+                    @Parameter(name = "filters", description = "Filter criteria for products", schema = @Schema(implementation = ProductFilterCriteria.class))
+            }
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Page of products retrieved successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiResponseDTO.class),
+                            examples = @ExampleObject(
+                                    name = "Product Cursor Page Response",
+                                    description = "Example response with one product and a cursor to the next page",
+                                    value = """
+                                            {
+                                              "message": "Products retrieved successfully",
+                                              "success": true,
+                                              "data": {
+                                                "items": [
+                                                  {
+                                                    "id": "0192a4e2-7c1a-7b3e-9f10-3c5d2e8a4b01",
+                                                    "name": "Smartphone Samsung Galaxy S24",
+                                                    "description": "Smartphone with 6.1 inch display",
+                                                    "price": 899.99,
+                                                    "category": "Electronics",
+                                                    "quantity": 50,
+                                                    "sellerId": "seller-123",
+                                                    "createdAt": "2024-01-15T10:30:00",
+                                                    "updatedAt": "2024-01-15T10:30:00"
+                                                  }
+                                                ],
+                                                "nextCursor": "TkVXRVNUfDIwMjQtMDEtMTVUMTA6MzB8MDE5MmE0ZTItN2MxYS03YjNlLTlmMTAtM2M1ZDJlOGE0YjAx",
+                                                "hasMore": true
+                                              }
+                                            }
+                                            """
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Malformed cursor, cursor issued for another sort or invalid page size"
+            )
+    })
+    public ResponseEntity<ApiResponseDTO<ProductPageDto>> getProductsByCursor(
+            @Parameter(description = "Filter criteria for products") ProductFilterCriteria filters,
+            @Parameter(description = "Cursor returned as 'nextCursor' by the previous page, empty for the first page")
+            @RequestParam String cursor,
+            @Parameter(description = "Order of the listing", example = "NEWEST")
+            @RequestParam(defaultValue = "NEWEST") ProductSort sort,
+            @Parameter(description = "Number of products per page, capped by the server", example = "20")
+            @RequestParam(required = false) Integer size) {
+        ApiResponseDTO<ProductPageDto> products = productService.getProductsAfter(filters, sort, cursor, size);
+        return ResponseEntity.ok(products);
+    }
+
+    @GetMapping("/search")
+    @Operation(
+            summary = "Search products",
+            description = "Full-text search over product names and descriptions, best match first. The last word also "
+                    + "matches as a prefix. Accepts the same filters as the product listing.",
+            parameters = {
+                    @Parameter(name = "filters", description = "Filter criteria for products", schema = @Schema(implementation = ProductFilterCriteria.class)),
+                    @Parameter(name = "pageable", description = "Pagination information", schema = @Schema(implementation = Pageable.class))
+            }
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Matching products retrieved successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiResponseDTO.class),
+                            examples = @ExampleObject(
+                                    name = "Search Response",
+                                    description = "Example response for the query 'galaxy sm'",
+                                    value = """
+                                            {
+                                              "message": "Products retrieved successfully",
+                                              "success": true,
+                                              "data": {
+                                                "content": [
+                                                  {
+                                                    "id": "0192a4e2-7c1a-7b3e-9f10-3c5d2e8a4b01",
+                                                    "name": "Smartphone Samsung Galaxy S24",
+                                                    "description": "Smartphone with 6.1 inch display",
+                                                    "price": 899.99,
+                                                    "category": "Electronics",
+                                                    "quantity": 50,
+                                                    "sellerId": "seller-123",
+                                                    "createdAt": "2024-01-15T10:30:00",
+                                                    "updatedAt": "2024-01-15T10:30:00"
+                                                  }
+                                                ],
+                                                "totalElements": 1,
+                                                "totalPages": 1,
+                                                "size": 20,
+                                                "number": 0
+                                              }
+                                            }
+                                            """
+                            )
+                    )
+            )
+    })
+    public ResponseEntity<ApiResponseDTO<Page<Product>>> searchProducts(
+            @Parameter(description = "Search text", required = true, example = "galaxy sm") @RequestParam("q") String query,
+            @Parameter(description = "Filter criteria for products") ProductFilterCriteria filters,
+            @Parameter(description = "Pagination information") Pageable pageable) {
+        ApiResponseDTO<Page<Product>> products = productService.searchProducts(query, filters, pageable);
+        return ResponseEntity.ok(products);
+    }
+
+    @GetMapping("/facets")
+    @Operation(
+            summary = "Get facet counts",
+            description = "Counts per category and per price bucket for the products matching the filters, computed in one "
+                    + "pass over in-memory aggregates. Category counts ignore the category filter and price buckets ignore "
+                    + "the price range, so the alternatives to the current selection can be shown.",
+            parameters = {
+                    @Parameter(name = "filters", description = "Filter criteria for products", schema = @Schema(implementation = ProductFilterCriteria.class))
+            }
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Facets retrieved successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiResponseDTO.class),
+                            examples = @ExampleObject(
+                                    name = "Facets Response",
+                                    description = "Example response for in-stock products with the buckets 0,100,500",
+                                    value = """
+                                            {
+                                              "message": "Facets retrieved successfully",
+                                              "success": true,
+                                              "data": {
+                                                "total": 57,
+                                                "categories": {
+                                                  "Electronics": 42,
+                                                  "Books": 15
+                                                },
+                                                "priceBuckets": [
+                                                  { "from": 0, "to": 100, "count": 20 },
+                                                  { "from": 100, "to": 500, "count": 25 },
+                                                  { "from": 500, "to": null, "count": 12 }
+                                                ]
+                                              }
+                                            }
+                                            """
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Too many price buckets"
+            )
+    })
+    public ResponseEntity<ApiResponseDTO<ProductFacetsDto>> getFacets(
+            @Parameter(description = "Filter criteria for products") ProductFilterCriteria filters,
+            @Parameter(description = "Lower bounds of the price buckets, the server defaults are used when omitted", example = "0,100,500")
+            @RequestParam(required = false) List<BigDecimal> priceBuckets) {
+        return ResponseEntity.ok(productService.getFacets(filters, priceBuckets));
+    }
+
+    @PreAuthorize("hasRole('admin_client_role')")
+    @PostMapping("/search/rebuild")
+    @Operation(
+            summary = "Rebuild the search index",
+            description = "Reloads the in-memory search index of this instance from the database. Returns the number of products indexed."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Search index rebuilt successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiResponseDTO.class)
+                    )
+            )
+    })
+    public ResponseEntity<ApiResponseDTO<Integer>> rebuildSearchIndex() {
+        return ResponseEntity.ok(productService.rebuildSearchIndex());
+    }
+
     @GetMapping("/{productId}")
     @Operation(
             summary = "Get product by ID",
-            description = "Retrieve a specific product by its unique identifier"
+            description = "Retrieve a specific product by its unique identifier. The response carries a strong ETag; send it "
+                    + "back in If-None-Match to get 304 Not Modified while the product is unchanged."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -166,7 +392,7 @@ public class ProductController {
                                               "message": "Product found successfully",
                                               "success": true,
                                               "data": {
-                                                "id": "prod-001",
+                                                "id": "0192a4e2-7c1a-7b3e-9f10-3c5d2e8a4b01",
                                                 "name": "Smartphone Samsung Galaxy S24",
                                                 "description": "Smartphone with 6.1 inch display and 50MP camera",
                                                 "price": 899.99,
@@ -219,12 +445,189 @@ public class ProductController {
                                             """
                             )
                     )
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "The product still matches the ETag sent in If-None-Match"
             )
     })
     public ResponseEntity<ApiResponseDTO<Product>> getProductById(
-            @Parameter(description = "Unique product ID", required = true, example = "prod-001") @PathVariable("productId") String id) {
+            @Parameter(description = "Unique product ID", required = true, example = "0192a4e2-7c1a-7b3e-9f10-3c5d2e8a4b01") @PathVariable("productId") UUID id) {
         ApiResponseDTO<Product> product = productService.getProductById(id);
-        return ResponseEntity.ok(product);
+        // Spring answers a matching If-None-Match with 304 and skips serializing the body
+        return ResponseEntity.ok()
+                .eTag(eTag(product.data()))
+                .cacheControl(CacheControl.noCache())
+                .body(product);
+    }
+
+    /**
+     * Strong ETag for the current version of a product. Every write goes through @PreUpdate or sets
+     * updatedAt explicitly, so the pair changes whenever the representation does.
+     */
+    private static String eTag(Product product) {
+        LocalDateTime updatedAt = product.getUpdatedAt();
+        long version = updatedAt == null ? 0 : updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + updatedAt.getNano();
+        return "\"" + product.getId() + "-" + Long.toHexString(version) + "\"";
+    }
+
+    @PostMapping("/batch")
+    @Operation(
+            summary = "Get products by IDs",
+            description = "Retrieve several products in a single lookup. Products that do not exist are omitted from the response.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Identifiers of the products to retrieve",
+                    required = true,
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ProductBatchRequestDto.class),
+                            examples = @ExampleObject(
+                                    name = "Batch Lookup Request",
+                                    description = "Example request to retrieve two products",
+                                    value = """
+                                            {
+                                              "ids": ["0192a4e2-7c1a-7b3e-9f10-3c5d2e8a4b01", "0192a4e2-7c1a-7b3f-a2c4-81e6f0d93c17"]
+                                            }
+                                            """
+                            )
+                    )
+            )
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Products retrieved successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiResponseDTO.class),
+                            examples = @ExampleObject(
+                                    name = "Batch Lookup Response",
+                                    description = "Example response with the products that were found",
+                                    value = """
+                                            {
+                                              "message": "Products retrieved successfully",
+                                              "success": true,
+                                              "data": [
+                                                {
+                                                  "id": "0192a4e2-7c1a-7b3e-9f10-3c5d2e8a4b01",
+                                                  "name": "Smartphone Samsung Galaxy S24",
+                                                  "description": "Smartphone with 6.1 inch display",
+                                                  "price": 899.99,
+                                                  "category": "Electronics",
+                                                  "quantity": 50,
+                                                  "sellerId": "seller-123",
+                                                  "createdAt": "2024-01-15T10:30:00",
+                                                  "updatedAt": "2024-01-15T10:30:00"
+                                                }
+                                              ]
+                                            }
+                                            """
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Empty or too large list of product IDs",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiResponseDTO.class)
+                    )
+            )
+    })
+    public ResponseEntity<ApiResponseDTO<List<Product>>> getProductsByIds(
+            @Parameter(description = "Product IDs to retrieve", required = true) @Valid @RequestBody ProductBatchRequestDto request) {
+        ApiResponseDTO<List<Product>> products = productService.getProductsByIds(request.ids());
+        return ResponseEntity.ok(products);
+    }
+
+    // Only other services reserve stock, with their own client-credentials token, never a buyer's
+    @PreAuthorize("hasRole('service_client_role')")
+    @PostMapping("/stock/reserve")
+    @Operation(
+            summary = "Reserve stock",
+            description = "Takes the requested quantities out of stock, for all items or none. Used by the order service while an order is created and restricted to service accounts. Repeating a request with the same reservation ID does not take the stock twice.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Products and quantities to reserve",
+                    required = true,
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = StockReservationRequestDto.class),
+                            examples = @ExampleObject(
+                                    name = "Stock Reservation Request",
+                                    description = "Example request reserving two products",
+                                    value = """
+                                            {
+                                              "reservationId": "0192a4e2-9b31-7c2d-8e4f-1a2b3c4d5e6f",
+                                              "items": [
+                                                { "productId": "0192a4e2-7c1a-7b3e-9f10-3c5d2e8a4b01", "quantity": 2 },
+                                                { "productId": "0192a4e2-7c1a-7b3f-a2c4-81e6f0d93c17", "quantity": 1 }
+                                              ]
+                                            }
+                                            """
+                            )
+                    )
+            )
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Stock reserved successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "One of the products does not exist"
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Not enough stock for one of the products, nothing was reserved",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(
+                                    name = "Insufficient Stock",
+                                    value = """
+                                            {
+                                              "error": "Insufficient stock",
+                                              "message": "Insufficient stock for product 'Smartphone Samsung Galaxy S24'. Requested: 5, Available: 2",
+                                              "productId": "0192a4e2-7c1a-7b3e-9f10-3c5d2e8a4b01",
+                                              "productName": "Smartphone Samsung Galaxy S24",
+                                              "requested": 5,
+                                              "available": 2
+                                            }
+                                            """
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "410",
+                    description = "The reservation ID was already released, nothing was reserved"
+            )
+    })
+    public ResponseEntity<ApiResponseDTO<Void>> reserveStock(@Valid @RequestBody StockReservationRequestDto request) {
+        return ResponseEntity.ok(productService.reserveStock(request.reservationId(), request.items()));
+    }
+
+    @PreAuthorize("hasRole('service_client_role')")
+    @PostMapping("/stock/release")
+    @Operation(
+            summary = "Release reserved stock",
+            description = "Puts the quantities of an earlier reservation back into stock, for example when the order could not be saved. Restricted to service accounts. Releasing twice, or before the reservation arrived, is safe: a reservation that arrives after its release is rejected."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Stock released successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiResponseDTO.class)
+                    )
+            )
+    })
+    public ResponseEntity<ApiResponseDTO<Void>> releaseStock(@Valid @RequestBody StockReleaseRequestDto request) {
+        return ResponseEntity.ok(productService.releaseStock(request.reservationId()));
     }
 
     @PreAuthorize("hasRole('admin_client_role') or hasRole('seller_client_role') or hasRole('buyer_client_role')")
@@ -270,7 +673,7 @@ public class ProductController {
                                               "message": "Product created successfully",
                                               "success": true,
                                               "data": {
-                                                "id": "prod-003",
+                                                "id": "0192a4e3-05d8-7a10-8b6e-4f2a9c1d7e35",
                                                 "name": "Smartphone Samsung Galaxy S24",
                                                 "description": "Smartphone with 6.1 inch display and 50MP camera",
                                                 "price": 899.99,
@@ -373,6 +776,95 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdProduct);
     }
 
+    @PreAuthorize("hasRole('admin_client_role') or hasRole('seller_client_role')")
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+            summary = "Import products in bulk",
+            description = "Streams a whole catalog into the marketplace for the authenticated seller. Send CSV with a header "
+                    + "row (name, description, price, quantity, category) or one JSON product per line. Rows are checked "
+                    + "with the same rules as a single product and saved in batches. The response is NDJSON written while "
+                    + "the upload is read: one 'error' line per rejected row, a 'progress' line after every batch and a "
+                    + "final 'summary' line. Rows saved before an error stay saved.",
+            security = @SecurityRequirement(name = "bearerAuth"),
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Products to import",
+                    required = true,
+                    content = {
+                            @Content(
+                                    mediaType = "text/csv",
+                                    examples = @ExampleObject(
+                                            name = "CSV Import Request",
+                                            value = """
+                                                    name,description,price,quantity,category
+                                                    Smartphone Samsung Galaxy S24,"Smartphone with 6.1 inch display, 50MP camera",899.99,50,Electronics
+                                                    Wireless Mouse,Ergonomic wireless mouse,24.90,200,Electronics
+                                                    """
+                                    )
+                            ),
+                            @Content(
+                                    mediaType = "application/x-ndjson",
+                                    examples = @ExampleObject(
+                                            name = "NDJSON Import Request",
+                                            value = """
+                                                    {"name": "Smartphone Samsung Galaxy S24", "description": "Smartphone with 6.1 inch display", "price": 899.99, "quantity": 50, "category": "Electronics"}
+                                                    {"name": "Wireless Mouse", "description": "Ergonomic wireless mouse", "price": 24.90, "quantity": 200, "category": "Electronics"}
+                                                    """
+                                    )
+                            )
+                    }
+            )
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Import events, one JSON object per line",
+                    content = @Content(
+                            mediaType = "application/x-ndjson",
+                            schema = @Schema(implementation = ProductImportEventDto.class),
+                            examples = @ExampleObject(
+                                    name = "Import Response",
+                                    value = """
+                                            {"type":"error","line":3,"message":"Price must be greater than 0"}
+                                            {"type":"progress","processed":1000,"imported":999,"rejected":1,"rowsPerSecond":21450}
+                                            {"type":"summary","processed":1204,"imported":1203,"rejected":1,"rowsPerSecond":22010}
+                                            """
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "415",
+                    description = "The upload is neither text/csv nor application/x-ndjson"
+            )
+    })
+    public ResponseEntity<StreamingResponseBody> importProducts(
+            HttpServletRequest request,
+            @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt) throws IOException {
+        String sellerId = jwt.getClaim("sub");
+        ProductImportFormat format = ProductImportFormat.of(request.getContentType());
+        Charset charset = request.getCharacterEncoding() != null
+                ? Charset.forName(request.getCharacterEncoding())
+                : StandardCharsets.UTF_8;
+        Reader upload = new BufferedReader(new InputStreamReader(request.getInputStream(), charset), 64 * 1024);
+
+        StreamingResponseBody body = output -> {
+            Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+            productImportService.importProducts(upload, format, sellerId, event -> {
+                try {
+                    writer.write(objectMapper.writeValueAsString(event));
+                    writer.write('\n');
+                    // Errors are flushed together with the next progress line
+                    if (!ProductImportEventDto.ERROR.equals(event.type())) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @PreAuthorize("hasRole('admin_client_role') or hasRole('seller_client_role')")
     @DeleteMapping("/{productId}")
     @Operation(
@@ -478,7 +970,7 @@ public class ProductController {
             )
     })
     public ResponseEntity<ApiResponseDTO<Void>> deleteProduct(
-            @Parameter(description = "Unique product ID to delete", required = true, example = "prod-001") @PathVariable("productId") String id) {
+            @Parameter(description = "Unique product ID to delete", required = true, example = "0192a4e2-7c1a-7b3e-9f10-3c5d2e8a4b01") @PathVariable("productId") UUID id) {
         ApiResponseDTO<Void> response = productService.deleteProduct(id);
         return ResponseEntity.ok(response);
     }
@@ -527,7 +1019,7 @@ public class ProductController {
                                               "message": "Product updated successfully",
                                               "success": true,
                                               "data": {
-                                                "id": "prod-001",
+                                                "id": "0192a4e2-7c1a-7b3e-9f10-3c5d2e8a4b01",
                                                 "name": "Smartphone Samsung Galaxy S24 Ultra",
                                                 "description": "Premium smartphone with 6.8 inch display and 200MP camera",
                                                 "price": 1199.99,
@@ -640,7 +1132,7 @@ public class ProductController {
             )
     })
     public ResponseEntity<ApiResponseDTO<Product>> updateProduct(
-            @Parameter(description = "Unique product ID to update", required = true, example = "prod-001") @PathVariable("productId") String id,
+            @Parameter(description = "Unique product ID to update", required = true, example = "0192a4e2-7c1a-7b3e-9f10-3c5d2e8a4b01") @PathVariable("productId") UUID id,
             @Parameter(description = "Updated product data", required = true) @RequestBody ProductDto productDto) {
         Product mapToProduct = ProductDto.mapToProduct(productDto, null);
         ApiResponseDTO<Product> updatedProduct = productService.updateProduct(id, mapToProduct);
@@ -688,7 +1180,7 @@ public class ProductController {
                                               "message": "Product updated successfully",
                                               "success": true,
                                               "data": {
-                                                "id": "prod-001",
+                                                "id": "0192a4e2-7c1a-7b3e-9f10-3c5d2e8a4b01",
                                                 "name": "Smartphone Samsung Galaxy S24",
                                                 "description": "Smartphone with 6.1 inch display - SPECIAL OFFER",
                                                 "price": 999.99,
@@ -742,6 +1234,24 @@ public class ProductController {
                             )
                     )
             ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "The product was changed by another request at the same time",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class),
+                            examples = @ExampleObject(
+                                    name = "Concurrent Update Response",
+                                    description = "Example response when another update won the race",
+                                    value = """
+                                            {
+                                              "error": "Concurrent update",
+                                              "message": "The product was changed by another request, please retry"
+                                            }
+                                            """
+                            )
+                    )
+            ),
             @ApiResponse(
                     responseCode = "401",
                     description = "Unauthorized - Invalid or expired token",
@@ -801,7 +1311,7 @@ public class ProductController {
             )
     })
     public ResponseEntity<?> updatePartialProduct(
-            @Parameter(description = "Unique product ID to update", required = true, example = "prod-001") @PathVariable("productId") String productId,
+            @Parameter(description = "Unique product ID to update", required = true, example = "0192a4e2-7c1a-7b3e-9f10-3c5d2e8a4b01") @PathVariable("productId") UUID productId,
             @Parameter(description = "Partial product data to update", required = true) @RequestBody ProductUpdateDto productUpdateDto) {
         Product mapToProduct = ProductUpdateDto.mapToProduct(productUpdateDto);
         ApiResponseDTO<Product> updatedProduct = productService.updatePartialProduct(productId, mapToProduct);
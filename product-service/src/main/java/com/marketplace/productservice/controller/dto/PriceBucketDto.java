@@ -0,0 +1,18 @@
+package com.marketplace.productservice.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+@Schema(description = "Number of products whose price falls in [from, to)")
+public record PriceBucketDto(
+        @Schema(description = "Inclusive lower bound", example = "50")
+        BigDecimal from,
+
+        @Schema(description = "Exclusive upper bound, null for the last bucket", example = "100")
+        BigDecimal to,
+
+        @Schema(description = "Products in the bucket", example = "42")
+        long count
+) {
+}
@@ -0,0 +1,18 @@
+package com.marketplace.productservice.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+@Schema(description = "Data transfer object for looking up several products at once")
+public record ProductBatchRequestDto(
+
+        @Schema(description = "Identifiers of the products to retrieve", example = "[\"0192a4e2-7c1a-7b3e-9f10-3c5d2e8a4b01\", \"0192a4e2-7c1a-7b3f-a2c4-81e6f0d93c17\"]", required = true)
+        @NotEmpty(message = "Product IDs cannot be empty")
+        @Size(max = 100, message = "A maximum of 100 product IDs can be requested at once")
+        List<UUID> ids
+) {
+}
@@ -0,0 +1,56 @@
+package com.marketplace.productservice.controller.dto;
+
+import com.marketplace.productservice.entity.Product;
+import com.marketplace.productservice.exception.InvalidRequestException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of the last product returned in a page, for the given sort. Only the sort key that the
+ * sort uses is set. Clients receive it as an opaque Base64 token and send it back to fetch the next page.
+ */
+public record ProductCursor(
+        ProductSort sort,
+        BigDecimal price,
+        LocalDateTime createdAt,
+        UUID id
+) {
+
+    private static final String SEPARATOR = "|";
+
+    public static ProductCursor after(Product product, ProductSort sort) {
+        return switch (sort) {
+            case PRICE_ASC, PRICE_DESC -> new ProductCursor(sort, product.getPrice(), null, product.getId());
+            case NEWEST, OLDEST -> new ProductCursor(sort, null, product.getCreatedAt(), product.getId());
+        };
+    }
+
+    public String encode() {
+        Object key = price != null ? price.toPlainString() : createdAt;
+        String raw = sort.name() + SEPARATOR + key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != 3) {
+                throw new InvalidRequestException("Invalid pagination cursor");
+            }
+            ProductSort sort = ProductSort.valueOf(parts[0]);
+            UUID id = UUID.fromString(parts[2]);
+            return switch (sort) {
+                case PRICE_ASC, PRICE_DESC -> new ProductCursor(sort, new BigDecimal(parts[1]), null, id);
+                case NEWEST, OLDEST -> new ProductCursor(sort, null, LocalDateTime.parse(parts[1]), id);
+            };
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidRequestException("Invalid pagination cursor");
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.marketplace.productservice.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+
+import java.util.List;
+import java.util.Map;
+
+@Schema(description = "Facet counts for the products matching a set of filters")
+@Builder
+public record ProductFacetsDto(
+        @Schema(description = "Products matching every filter", example = "128")
+        long total,
+
+        @Schema(description = "Products per category, ignoring the category filter so the other categories can be offered")
+        Map<String, Long> categories,
+
+        @Schema(description = "Products per price bucket, ignoring the price range filter")
+        List<PriceBucketDto> priceBuckets
+) {
+}
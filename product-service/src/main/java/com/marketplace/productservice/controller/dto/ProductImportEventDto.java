@@ -0,0 +1,43 @@
+package com.marketplace.productservice.controller.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+
+@Schema(description = "One line of the bulk import response: a rejected row, a progress report or the final summary")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Builder
+public record ProductImportEventDto(
+        @Schema(description = "Kind of event", example = "progress", allowableValues = {"error", "progress", "summary"})
+        String type,
+
+        @Schema(description = "Line of the upload where the rejected row starts", example = "42")
+        Long line,
+
+        @Schema(description = "Why the row was rejected", example = "Price must be greater than 0")
+        String message,
+
+        @Schema(description = "Rows read so far", example = "10000")
+        Long processed,
+
+        @Schema(description = "Rows saved so far", example = "9990")
+        Long imported,
+
+        @Schema(description = "Rows rejected so far", example = "10")
+        Long rejected,
+
+        @Schema(description = "Rows read per second since the import started", example = "25000")
+        Long rowsPerSecond
+) {
+    public static final String ERROR = "error";
+    public static final String PROGRESS = "progress";
+    public static final String SUMMARY = "summary";
+
+    public static ProductImportEventDto error(long line, String message) {
+        return ProductImportEventDto.builder()
+                .type(ERROR)
+                .line(line)
+                .message(message)
+                .build();
+    }
+}
@@ -0,0 +1,36 @@
+package com.marketplace.productservice.controller.dto;
+
+import com.marketplace.productservice.exception.InvalidRequestException;
+import org.springframework.http.MediaType;
+
+/**
+ * Upload formats accepted by the bulk import, selected by the request Content-Type.
+ */
+public enum ProductImportFormat {
+    /**
+     * Comma-separated values with a header row naming the columns.
+     */
+    CSV(MediaType.parseMediaType("text/csv")),
+    /**
+     * One JSON product per line.
+     */
+    NDJSON(MediaType.APPLICATION_NDJSON);
+
+    private final MediaType mediaType;
+
+    ProductImportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public static ProductImportFormat of(String contentType) {
+        if (contentType != null) {
+            MediaType requested = MediaType.parseMediaType(contentType);
+            for (ProductImportFormat format : values()) {
+                if (format.mediaType.includes(requested)) {
+                    return format;
+                }
+            }
+        }
+        throw new InvalidRequestException("Imports must be sent as text/csv or application/x-ndjson");
+    }
+}
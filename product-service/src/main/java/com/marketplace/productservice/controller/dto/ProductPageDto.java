@@ -0,0 +1,24 @@
+package com.marketplace.productservice.controller.dto;
+
+import com.marketplace.productservice.entity.Product;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+
+import java.util.List;
+
+@Schema(description = "A page of products with the cursor to request the next one")
+@Builder
+public record ProductPageDto(
+        @Schema(description = "Products in this page, in the requested order")
+        List<Product> items,
+
+        @Schema(
+                description = "Opaque cursor to pass as 'cursor' to get the next page, null when there are no more products",
+                example = "TkVXRVNUfDIwMjQtMDEtMTVUMTA6MzB8MDE5MmE0ZTItN2MxYS03YjNlLTlmMTAtM2M1ZDJlOGE0YjAx"
+        )
+        String nextCursor,
+
+        @Schema(description = "Whether more products are available after this page", example = "true")
+        boolean hasMore
+) {
+}
@@ -0,0 +1,34 @@
+package com.marketplace.productservice.controller.dto;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * Orderings available to the cursor listing. Each one ends with the product ID so the order is total
+ * and a cursor always points at exactly one position.
+ */
+public enum ProductSort {
+    NEWEST("createdAt", Sort.Direction.DESC),
+    OLDEST("createdAt", Sort.Direction.ASC),
+    PRICE_ASC("price", Sort.Direction.ASC),
+    PRICE_DESC("price", Sort.Direction.DESC);
+
+    private final String property;
+    private final Sort.Direction direction;
+
+    ProductSort(String property, Sort.Direction direction) {
+        this.property = property;
+        this.direction = direction;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public boolean isAscending() {
+        return direction.isAscending();
+    }
+
+    public Sort toSort() {
+        return Sort.by(direction, property).and(Sort.by(direction, "id"));
+    }
+}
@@ -0,0 +1,21 @@
+package com.marketplace.productservice.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.util.UUID;
+
+@Schema(description = "Quantity of one product to reserve or release")
+public record StockItemDto(
+
+        @Schema(description = "Identifier of the product", example = "0192a4e2-7c1a-7b3e-9f10-3c5d2e8a4b01", required = true)
+        @NotNull(message = "Product ID cannot be empty")
+        UUID productId,
+
+        @Schema(description = "Number of units", example = "2", required = true)
+        @NotNull(message = "Quantity cannot be null")
+        @Positive(message = "Quantity must be positive")
+        Integer quantity
+) {
+}
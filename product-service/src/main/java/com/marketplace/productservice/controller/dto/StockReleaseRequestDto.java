@@ -0,0 +1,15 @@
+package com.marketplace.productservice.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.UUID;
+
+@Schema(description = "Data transfer object for giving back the stock of an earlier reservation")
+public record StockReleaseRequestDto(
+
+        @Schema(description = "Identifier sent with the reservation", example = "0192a4e2-9b31-7c2d-8e4f-1a2b3c4d5e6f", required = true)
+        @NotNull(message = "Reservation ID cannot be null")
+        UUID reservationId
+) {
+}
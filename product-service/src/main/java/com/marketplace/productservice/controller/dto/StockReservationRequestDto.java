@@ -0,0 +1,26 @@
+package com.marketplace.productservice.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+@Schema(description = "Data transfer object for reserving the stock of several products at once")
+public record StockReservationRequestDto(
+
+        @Schema(description = "Identifier chosen by the caller. Repeating a request with the same ID does not take the stock twice",
+                example = "0192a4e2-9b31-7c2d-8e4f-1a2b3c4d5e6f", required = true)
+        @NotNull(message = "Reservation ID cannot be null")
+        UUID reservationId,
+
+        @Schema(description = "Products and quantities, all applied or none", required = true)
+        @NotEmpty(message = "Items cannot be empty")
+        @Size(max = 100, message = "A maximum of 100 items can be reserved at once")
+        @Valid
+        List<StockItemDto> items
+) {
+}
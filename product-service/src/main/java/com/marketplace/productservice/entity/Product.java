@@ -7,8 +7,15 @@ import lombok.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Date;
+import java.util.UUID;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_product_category_price_id", columnList = "category, price, id"),
+        @Index(name = "idx_product_price_id", columnList = "price, id"),
+        @Index(name = "idx_product_created_id", columnList = "created_at, id"),
+        @Index(name = "idx_product_seller_created", columnList = "seller_id, created_at")
+})
 @Getter
 @Setter
 @AllArgsConstructor
@@ -16,8 +23,8 @@ import java.util.Date;
 @Builder
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
-    private String id;
+    @TimeOrderedUuid
+    private UUID id;
 
     private String name;
 
@@ -38,6 +45,9 @@ public class Product {
     private LocalDateTime createdAt ;
     private LocalDateTime updatedAt;
 
+    @Version
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
@@ -0,0 +1,42 @@
+package com.marketplace.productservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Stock taken out for one order. The ID is generated by the caller and sent with both the reserve and
+ * the release request, and the items record what a release has to put back.
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_stock_reservation_updated_at", columnList = "updated_at")
+})
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class StockReservation {
+    @Id
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StockReservationStatus status;
+
+    @ElementCollection
+    @CollectionTable(name = "stock_reservation_item", joinColumns = @JoinColumn(name = "reservation_id"))
+    @Builder.Default
+    private List<StockReservationItem> items = new ArrayList<>();
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
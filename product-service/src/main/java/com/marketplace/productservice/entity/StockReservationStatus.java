@@ -0,0 +1,6 @@
+package com.marketplace.productservice.entity;
+
+public enum StockReservationStatus {
+    RESERVED,
+    RELEASED
+}
@@ -0,0 +1,138 @@
+package com.marketplace.productservice.event;
+
+import com.marketplace.productservice.entity.OutboxEvent;
+import com.marketplace.productservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains the catalog outbox to Kafka in batches and purges events that were already sent.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+    private final Duration retention;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, KafkaTemplate<String, String> kafkaTemplate,
+                       PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                       @Value("${product.outbox.batch-size:100}") int batchSize,
+                       @Value("${product.outbox.send-timeout-ms:10000}") long sendTimeoutMs,
+                       @Value("${product.outbox.retention-hours:24}") long retentionHours) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.publishedCounter = Counter.builder("products.outbox.published")
+                .description("Outbox events acknowledged by Kafka")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("products.outbox.failed")
+                .description("Outbox events that failed to publish and will be retried")
+                .register(meterRegistry);
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    @Scheduled(fixedDelayString = "${product.outbox.poll-interval-ms:500}")
+    public void relayPendingEvents() {
+        Integer relayed;
+        // Keep draining while full batches go out, stop on a partial batch or on failures
+        do {
+            relayed = transactionTemplate.execute(status -> relayBatch());
+        } while (relayed != null && relayed == batchSize);
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.findPendingForUpdate(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Set<UUID> published = publishBatch(batch);
+        LocalDateTime sentAt = LocalDateTime.now();
+
+        // Changes are flushed by dirty checking when the transaction commits
+        for (OutboxEvent event : batch) {
+            if (published.contains(event.getId())) {
+                event.setSentAt(sentAt);
+            } else {
+                event.setAttempts(event.getAttempts() + 1);
+            }
+        }
+
+        publishedCounter.increment(published.size());
+        failedCounter.increment(batch.size() - published.size());
+        return published.size();
+    }
+
+    /**
+     * Sends every event of the batch without waiting in between, then waits for the broker
+     * acknowledgements. Returns the IDs of the events that were published successfully.
+     */
+    private Set<UUID> publishBatch(List<OutboxEvent> events) {
+        Map<UUID, CompletableFuture<SendResult<String, String>>> pending = new LinkedHashMap<>();
+
+        for (OutboxEvent event : events) {
+            pending.put(event.getId(), kafkaTemplate.send(event.getTopic(), event.getEventKey(), event.getPayload()));
+        }
+        kafkaTemplate.flush();
+
+        Set<UUID> published = new HashSet<>();
+        for (Map.Entry<UUID, CompletableFuture<SendResult<String, String>>> entry : pending.entrySet()) {
+            try {
+                entry.getValue().get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+                published.add(entry.getKey());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Interrupted while waiting for Kafka acknowledgements, remaining events will be retried");
+                break;
+            } catch (ExecutionException | TimeoutException e) {
+                log.error("Failed to publish outbox event: {}. Error: {}", entry.getKey(), e.getMessage());
+            }
+        }
+
+        log.debug("Published {} of {} outbox events", published.size(), events.size());
+        return published;
+    }
+
+    @Scheduled(fixedDelayString = "${product.outbox.cleanup-interval-ms:3600000}")
+    public void purgeSentEvents() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        Integer deleted = transactionTemplate.execute(status -> outboxEventRepository.deleteSentBefore(cutoff));
+
+        if (deleted != null && deleted > 0) {
+            log.info("Purged {} outbox events sent before {}", deleted, cutoff);
+        }
+    }
+}
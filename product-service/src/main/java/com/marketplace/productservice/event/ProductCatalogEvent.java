@@ -0,0 +1,38 @@
+package com.marketplace.productservice.event;
+
+import com.marketplace.productservice.entity.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Current state of a product as published to the catalog topic.
+ */
+public record ProductCatalogEvent(
+        UUID id,
+        String name,
+        String description,
+        BigDecimal price,
+        Integer quantity,
+        String imageUrl,
+        String category,
+        String sellerId,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+    public static ProductCatalogEvent fromProduct(Product product) {
+        return new ProductCatalogEvent(
+                product.getId(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getQuantity(),
+                product.getImageUrl(),
+                product.getCategory(),
+                product.getSellerId(),
+                product.getCreatedAt(),
+                product.getUpdatedAt()
+        );
+    }
+}
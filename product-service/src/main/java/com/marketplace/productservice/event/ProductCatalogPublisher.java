@@ -0,0 +1,66 @@
+package com.marketplace.productservice.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.productservice.config.KafkaTopics;
+import com.marketplace.productservice.entity.OutboxEvent;
+import com.marketplace.productservice.entity.Product;
+import com.marketplace.productservice.repository.OutboxEventRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Publishes product changes to the compacted catalog topic so other services can keep a local copy.
+ * <p>
+ * Events are stored in the outbox in the transaction that changes the product and sent by
+ * {@link OutboxRelay}, so a committed change always reaches the topic, even if this replica stops
+ * right after the commit, and a change that was rolled back never does.
+ */
+@Component
+@AllArgsConstructor
+public class ProductCatalogPublisher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishUpsert(Product product) {
+        outboxEventRepository.save(toUpsertEvent(product));
+    }
+
+    /**
+     * Stores the upserts of several products. The inserts go out as JDBC batches.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishUpserts(List<Product> products) {
+        outboxEventRepository.saveAll(products.stream().map(this::toUpsertEvent).toList());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishDelete(UUID productId) {
+        // A tombstone lets compaction drop every earlier version of the product
+        outboxEventRepository.save(toEvent(productId, null));
+    }
+
+    private OutboxEvent toUpsertEvent(Product product) {
+        try {
+            return toEvent(product.getId(), objectMapper.writeValueAsString(ProductCatalogEvent.fromProduct(product)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize catalog event for product: " + product.getId(), e);
+        }
+    }
+
+    private static OutboxEvent toEvent(UUID productId, String payload) {
+        return OutboxEvent.builder()
+                .aggregateId(productId)
+                .topic(KafkaTopics.PRODUCT_CATALOG)
+                .eventKey(productId.toString())
+                .payload(payload)
+                .build();
+    }
+}
@@ -0,0 +1,129 @@
+package com.marketplace.productservice.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.productservice.config.KafkaTopics;
+import com.marketplace.productservice.service.ProductCache;
+import com.marketplace.productservice.service.ProductListingCache;
+import com.marketplace.productservice.service.ProductSearchIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Keeps the per-replica product cache, listing cache and search index in step across every
+ * product-service replica.
+ * <p>
+ * Each write publishes the product ID, its new version and its filterable fields before and after the
+ * change. Every other replica drops its cached copy if it is older, evicts the listings the product
+ * could appear in and reloads it into its search index, so a PATCH served by one replica is not
+ * hidden behind stale data on another. The time from publishing to applying a message is recorded as
+ * products.invalidation.lag, which is the staleness window between replicas.
+ */
+@Component
+public class ProductInvalidationBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductInvalidationBroadcaster.class);
+
+    // Identifies this replica for as long as it runs, so it can skip the messages it sent itself
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final ProductCache productCache;
+    private final ProductListingCache productListingCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final Counter appliedCounter;
+    private final Counter ignoredCounter;
+    private final Timer lagTimer;
+
+    public ProductInvalidationBroadcaster(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper,
+                                          ProductCache productCache, ProductListingCache productListingCache,
+                                          ProductSearchIndex productSearchIndex, MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.productCache = productCache;
+        this.productListingCache = productListingCache;
+        this.productSearchIndex = productSearchIndex;
+        this.appliedCounter = Counter.builder("products.invalidation.received")
+                .tag("outcome", "applied")
+                .description("Invalidations from other replicas that evicted or reloaded a product")
+                .register(meterRegistry);
+        this.ignoredCounter = Counter.builder("products.invalidation.received")
+                .tag("outcome", "ignored")
+                .description("Invalidations from other replicas that found no older copy to drop")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("products.invalidation.lag")
+                .description("Time from a write on one replica until another replica applied it")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    public void publishUpdate(UUID productId, long version, ProductListingCache.Snapshot previous,
+                              ProductListingCache.Snapshot current) {
+        send(new ProductInvalidationEvent(productId, version, false, previous, current, instanceId,
+                System.currentTimeMillis()));
+    }
+
+    public void publishDelete(UUID productId, ProductListingCache.Snapshot previous) {
+        send(new ProductInvalidationEvent(productId, 0, true, previous, null, instanceId, System.currentTimeMillis()));
+    }
+
+    @KafkaListener(topics = KafkaTopics.PRODUCT_INVALIDATIONS,
+            groupId = "product-service-invalidations-${random.uuid}",
+            containerFactory = "productInvalidationListenerContainerFactory")
+    public void onInvalidation(String payload) {
+        ProductInvalidationEvent event;
+        try {
+            event = objectMapper.readValue(payload, ProductInvalidationEvent.class);
+        } catch (JsonProcessingException e) {
+            log.error("Skipping unreadable product invalidation: {}", payload, e);
+            return;
+        }
+        if (instanceId.equals(event.origin())) {
+            return;
+        }
+
+        productListingCache.invalidate(event.previous(), event.current());
+        if (event.deleted()) {
+            productCache.invalidate(event.productId());
+            productSearchIndex.remove(event.productId());
+            appliedCounter.increment();
+        } else {
+            boolean evicted = productCache.invalidate(event.productId(), event.version());
+            try {
+                productSearchIndex.refresh(event.productId(), event.version());
+            } catch (RuntimeException e) {
+                // The cache is already clean, the next rebuild brings the index back in line
+                log.warn("Failed to reload product {} into the search index", event.productId(), e);
+            }
+            (evicted ? appliedCounter : ignoredCounter).increment();
+        }
+        lagTimer.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - event.publishedAt())));
+    }
+
+    private void send(ProductInvalidationEvent event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize invalidation for product: {}", event.productId(), e);
+            return;
+        }
+        kafkaTemplate.send(KafkaTopics.PRODUCT_INVALIDATIONS, event.productId().toString(), payload)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        // Other replicas fall back on the cache TTL for this product
+                        log.error("Failed to publish invalidation for product: {}", event.productId(), ex);
+                    }
+                });
+    }
+}
@@ -0,0 +1,25 @@
+package com.marketplace.productservice.event;
+
+import com.marketplace.productservice.service.ProductListingCache;
+
+import java.util.UUID;
+
+/**
+ * Tells the other product-service replicas that a product changed.
+ *
+ * @param version     version of the product after the change, ignored when {@code deleted} is true
+ * @param previous    filterable fields before the change, null when the product was created
+ * @param current     filterable fields after the change, null when the product was deleted
+ * @param origin      replica that made the change, which skips its own messages
+ * @param publishedAt epoch milliseconds when the change was published, used to measure the staleness window
+ */
+public record ProductInvalidationEvent(
+        UUID productId,
+        long version,
+        boolean deleted,
+        ProductListingCache.Snapshot previous,
+        ProductListingCache.Snapshot current,
+        String origin,
+        long publishedAt
+) {
+}
@@ -0,0 +1,9 @@
+package com.marketplace.productservice.event;
+
+import java.util.UUID;
+
+/**
+ * Message on the stock-release topic asking to give back the stock of a reservation.
+ */
+public record StockReleaseEvent(UUID reservationId) {
+}
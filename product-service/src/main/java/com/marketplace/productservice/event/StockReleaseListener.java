@@ -0,0 +1,46 @@
+package com.marketplace.productservice.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.productservice.config.KafkaTopics;
+import com.marketplace.productservice.service.IProductService;
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies the stock releases order-service sends for reservations whose order was not created. A release
+ * is idempotent, so a message delivered again after a rebalance does nothing the second time.
+ */
+@Component
+@AllArgsConstructor
+public class StockReleaseListener {
+
+    private static final Logger log = LoggerFactory.getLogger(StockReleaseListener.class);
+
+    private final IProductService productService;
+    private final ObjectMapper objectMapper;
+
+    @KafkaListener(topics = KafkaTopics.STOCK_RELEASE,
+            groupId = "product-service-stock-release",
+            containerFactory = "stockReleaseListenerContainerFactory")
+    public void onStockRelease(String payload) {
+        StockReleaseEvent event;
+        try {
+            event = objectMapper.readValue(payload, StockReleaseEvent.class);
+        } catch (JsonProcessingException e) {
+            log.error("Skipping unreadable stock release: {}", payload, e);
+            return;
+        }
+        if (event.reservationId() == null) {
+            log.error("Skipping stock release without a reservation ID: {}", payload);
+            return;
+        }
+
+        // Exceptions propagate so the container retries the message
+        productService.releaseStock(event.reservationId());
+        log.info("Applied stock release for reservation {}", event.reservationId());
+    }
+}
@@ -0,0 +1,35 @@
+package com.marketplace.productservice.exception;
+
+import java.util.UUID;
+
+public class InsufficientStockException extends RuntimeException {
+    private final UUID productId;
+    private final String productName;
+    private final int requested;
+    private final int available;
+
+    public InsufficientStockException(UUID productId, String productName, int requested, int available) {
+        super(String.format("Insufficient stock for product '%s'. Requested: %d, Available: %d",
+                productName, requested, available));
+        this.productId = productId;
+        this.productName = productName;
+        this.requested = requested;
+        this.available = available;
+    }
+
+    public UUID getProductId() {
+        return productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public int getAvailable() {
+        return available;
+    }
+}
@@ -0,0 +1,6 @@
+package com.marketplace.productservice.exception;
+
+import java.util.UUID;
+
+public record InsufficientStockResponse(String error, String message, UUID productId, String productName,
+                                        int requested, int available) {}
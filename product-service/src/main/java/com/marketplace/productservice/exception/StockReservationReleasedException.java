@@ -0,0 +1,10 @@
+package com.marketplace.productservice.exception;
+
+import java.util.UUID;
+
+public class StockReservationReleasedException extends RuntimeException {
+
+    public StockReservationReleasedException(UUID reservationId) {
+        super("Stock reservation " + reservationId + " was already released");
+    }
+}
@@ -0,0 +1,37 @@
+package com.marketplace.productservice.repository;
+
+import com.marketplace.productservice.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, UUID> {
+
+    /**
+     * Pending events, at most the oldest one per product. A newer event of the same product waits until
+     * the older one is sent, so two replicas relaying in parallel cannot publish a product's changes out
+     * of order. Lock timeout -2 renders as SKIP LOCKED.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.sentAt IS NULL AND NOT EXISTS (" +
+           "SELECT o.id FROM OutboxEvent o WHERE o.aggregateId = e.aggregateId AND o.sentAt IS NULL " +
+           "AND o.createdAt < e.createdAt) ORDER BY e.createdAt")
+    List<OutboxEvent> findPendingForUpdate(Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.sentAt IS NOT NULL AND e.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+}
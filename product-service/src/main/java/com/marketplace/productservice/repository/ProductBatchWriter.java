@@ -0,0 +1,45 @@
+package com.marketplace.productservice.repository;
+
+import com.marketplace.productservice.entity.Product;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Inserts products with JDBC batches instead of one JPA round trip per product. With
+ * reWriteBatchedInserts on the connection URL the driver sends each batch as multi-row INSERTs.
+ */
+@Repository
+public class ProductBatchWriter {
+
+    private static final String INSERT_SQL = "INSERT INTO product (id, name, description, price, quantity, image_url, " +
+            "category, seller_id, created_at, updated_at, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductBatchWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts all products in one transaction. The products must already carry their ID, timestamps and version.
+     */
+    @Transactional
+    public void insertAll(List<Product> products) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, products, products.size(), (statement, product) -> {
+            statement.setObject(1, product.getId());
+            statement.setString(2, product.getName());
+            statement.setString(3, product.getDescription());
+            statement.setBigDecimal(4, product.getPrice());
+            statement.setObject(5, product.getQuantity());
+            statement.setString(6, product.getImageUrl());
+            statement.setString(7, product.getCategory());
+            statement.setString(8, product.getSellerId());
+            statement.setObject(9, product.getCreatedAt());
+            statement.setObject(10, product.getUpdatedAt());
+            statement.setLong(11, product.getVersion());
+        });
+    }
+}
@@ -1,10 +1,45 @@
 package com.marketplace.productservice.repository;
 
 import com.marketplace.productservice.entity.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
 @Repository
-public interface ProductRepository extends JpaRepository<Product, String>, JpaSpecificationExecutor<Product> {
+public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpecificationExecutor<Product> {
+
+    // Keyset batches over the primary key, used to load every product without OFFSET scans
+    List<Product> findByIdGreaterThanOrderById(UUID id, Pageable pageable);
+
+    /**
+     * Takes the quantity out of stock only if enough units are left. The check and the decrement are a
+     * single statement, so there is no read-then-write window between them. The row lock it takes is held
+     * until the surrounding transaction commits, so callers reserving several products must lock them in
+     * a consistent order, as ProductService.reserveStock does by product ID.
+     *
+     * @return 1 when the stock was reserved, 0 when the product is missing or short
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.quantity = p.quantity - :quantity, p.updatedAt = :now, p.version = p.version + 1 " +
+           "WHERE p.id = :id AND p.quantity >= :quantity")
+    int reserveStock(@Param("id") UUID id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.quantity = p.quantity + :quantity, p.updatedAt = :now, p.version = p.version + 1 " +
+           "WHERE p.id = :id")
+    int releaseStock(@Param("id") UUID id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+
+    // State left by the bulk stock updates above, which do not go through the entity
+    @Query("SELECT p.id AS id, p.version AS version, p.category AS category, p.price AS price, p.quantity AS quantity " +
+           "FROM Product p WHERE p.id IN :ids")
+    List<ProductState> findStatesByIdIn(@Param("ids") Collection<UUID> ids);
 }
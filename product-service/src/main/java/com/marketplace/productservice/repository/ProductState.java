@@ -0,0 +1,16 @@
+package com.marketplace.productservice.repository;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public interface ProductState {
+    UUID getId();
+
+    Long getVersion();
+
+    String getCategory();
+
+    BigDecimal getPrice();
+
+    Integer getQuantity();
+}
@@ -0,0 +1,38 @@
+package com.marketplace.productservice.repository;
+
+import com.marketplace.productservice.entity.StockReservation;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, UUID> {
+
+    /**
+     * Claims the reservation ID. A concurrent request with the same ID waits for this row's transaction
+     * and then gets 0, so only one of them ever applies the stock change.
+     *
+     * @return 1 when the row was inserted, 0 when the ID was already known
+     */
+    @Modifying
+    @Query(value = "INSERT INTO stock_reservation (id, status, created_at, updated_at) " +
+                   "VALUES (:id, :status, :now, :now) ON CONFLICT (id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("id") UUID id, @Param("status") String status, @Param("now") LocalDateTime now);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM StockReservation r WHERE r.id = :id")
+    Optional<StockReservation> findByIdForUpdate(@Param("id") UUID id);
+
+    // Items go with their reservation through ON DELETE CASCADE
+    @Modifying
+    @Query(value = "DELETE FROM stock_reservation WHERE updated_at < :cutoff", nativeQuery = true)
+    int deleteUpdatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
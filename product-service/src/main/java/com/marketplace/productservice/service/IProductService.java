@@ -1,25 +1,45 @@
 package com.marketplace.productservice.service;
 
 import com.marketplace.productservice.controller.dto.ApiResponseDTO;
+import com.marketplace.productservice.controller.dto.ProductFacetsDto;
 import com.marketplace.productservice.controller.dto.ProductFilterCriteria;
+import com.marketplace.productservice.controller.dto.ProductPageDto;
+import com.marketplace.productservice.controller.dto.ProductSort;
+import com.marketplace.productservice.controller.dto.StockItemDto;
 import com.marketplace.productservice.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Objects;
+import java.util.UUID;
 
 public interface IProductService {
 
     ApiResponseDTO<Page<Product>> getAllProducts(ProductFilterCriteria filter, Pageable pagge);
 
-    ApiResponseDTO<Product> getProductById(String id);
+    ApiResponseDTO<ProductPageDto> getProductsAfter(ProductFilterCriteria filters, ProductSort sort, String cursor, Integer size);
+
+    ApiResponseDTO<Page<Product>> searchProducts(String query, ProductFilterCriteria filters, Pageable page);
+
+    ApiResponseDTO<Integer> rebuildSearchIndex();
+
+    ApiResponseDTO<ProductFacetsDto> getFacets(ProductFilterCriteria filters, List<BigDecimal> priceBuckets);
+
+    ApiResponseDTO<Product> getProductById(UUID id);
+
+    ApiResponseDTO<List<Product>> getProductsByIds(List<UUID> ids);
 
     ApiResponseDTO<Product> createProduct(Product product);
 
-    ApiResponseDTO<Product> updateProduct(String id, Product product);
+    ApiResponseDTO<Product> updateProduct(UUID id, Product product);
+
+    ApiResponseDTO<Void> deleteProduct(UUID id);
+
+    ApiResponseDTO<Product> updatePartialProduct(UUID id, Product product);
 
-    ApiResponseDTO<Void> deleteProduct(String id);
+    ApiResponseDTO<Void> reserveStock(UUID reservationId, List<StockItemDto> items);
 
-    ApiResponseDTO<Product> updatePartialProduct(String id, Product product);
+    ApiResponseDTO<Void> releaseStock(UUID reservationId);
 }
@@ -0,0 +1,73 @@
+package com.marketplace.productservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.marketplace.productservice.entity.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of products by ID, evicted by size and by age.
+ * <p>
+ * Writes invalidate their product. An invalidation that races with a load waits for the load and then
+ * removes its result, so a version read before the write is never left behind. Writes made on other
+ * replicas arrive through {@link #invalidate(UUID, long)}. Hits and misses are published as
+ * cache.gets{cache=products.by-id}.
+ */
+@Component
+public class ProductCache {
+
+    private final Cache<UUID, Product> cache;
+
+    public ProductCache(MeterRegistry meterRegistry,
+                        @Value("${product.cache.maximum-size:10000}") long maximumSize,
+                        @Value("${product.cache.ttl-seconds:60}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products.by-id");
+    }
+
+    /**
+     * Returns the cached product or loads it. Products that do not exist are not cached.
+     */
+    public Optional<Product> get(UUID productId, Function<UUID, Optional<Product>> loader) {
+        return Optional.ofNullable(cache.get(productId, id -> loader.apply(id).orElse(null)));
+    }
+
+    public void invalidate(UUID productId) {
+        cache.invalidate(productId);
+    }
+
+    /**
+     * Drops the cached product unless it is already at {@code version} or newer, so a late or
+     * duplicated message does not evict a fresher copy.
+     *
+     * @return whether a cached copy was dropped
+     */
+    public boolean invalidate(UUID productId, long version) {
+        boolean[] evicted = {false};
+        cache.asMap().computeIfPresent(productId, (id, cached) -> {
+            if (cached.getVersion() != null && cached.getVersion() >= version) {
+                return cached;
+            }
+            evicted[0] = true;
+            return null;
+        });
+        return evicted[0];
+    }
+
+    public void invalidateAll(Collection<UUID> productIds) {
+        cache.invalidateAll(productIds);
+    }
+}
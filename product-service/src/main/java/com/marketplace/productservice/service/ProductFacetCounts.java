@@ -0,0 +1,137 @@
+package com.marketplace.productservice.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Product counts per category and price, kept up to date as products are added and removed so facet
+ * requests only add up aggregates. Not thread-safe, {@link ProductSearchIndex} guards it with its lock.
+ */
+final class ProductFacetCounts {
+
+    private static final class Counts {
+        private long total;
+        private long inStock;
+
+        long get(Boolean inStockFilter) {
+            if (inStockFilter == null) {
+                return total;
+            }
+            return inStockFilter ? inStock : total - inStock;
+        }
+
+        void add(boolean productInStock, int delta) {
+            total += delta;
+            if (productInStock) {
+                inStock += delta;
+            }
+        }
+    }
+
+    private static final class CategoryCounts {
+        private final Counts all = new Counts();
+        private final NavigableMap<BigDecimal, Counts> byPrice = new TreeMap<>();
+    }
+
+    /**
+     * Counts for one set of filters. {@code priceBuckets} holds one count per lower bound, each bucket
+     * ending where the next one starts and the last one open-ended.
+     */
+    record Result(Map<String, Long> categories, List<Long> priceBuckets, long total) {
+    }
+
+    // Products without a category are counted under the null key
+    private final Map<String, CategoryCounts> byCategory = new HashMap<>();
+
+    void add(String category, BigDecimal price, boolean inStock) {
+        change(category, price, inStock, 1);
+    }
+
+    void remove(String category, BigDecimal price, boolean inStock) {
+        change(category, price, inStock, -1);
+    }
+
+    /**
+     * Computes every facet in one pass over the aggregates. As usual for facets, the category counts
+     * ignore the category filter and the price buckets ignore the price range, so the client can show
+     * the alternatives to what is currently selected.
+     */
+    Result count(String category, Boolean inStock, BigDecimal minPrice, BigDecimal maxPrice, List<BigDecimal> bucketBounds) {
+        Map<String, Long> categories = new HashMap<>();
+        long[] buckets = new long[bucketBounds.size()];
+        long total = 0;
+
+        for (Map.Entry<String, CategoryCounts> entry : byCategory.entrySet()) {
+            boolean selected = category == null || category.equals(entry.getKey());
+            long inRange = countInRange(entry.getValue(), inStock, minPrice, maxPrice);
+
+            if (entry.getKey() != null && inRange > 0) {
+                categories.put(entry.getKey(), inRange);
+            }
+            if (!selected) {
+                continue;
+            }
+            total += inRange;
+            for (int i = 0; i < bucketBounds.size(); i++) {
+                BigDecimal upper = i + 1 < bucketBounds.size() ? bucketBounds.get(i + 1) : null;
+                buckets[i] += countInBucket(entry.getValue(), inStock, bucketBounds.get(i), upper);
+            }
+        }
+
+        List<Long> priceBuckets = new ArrayList<>(buckets.length);
+        for (long count : buckets) {
+            priceBuckets.add(count);
+        }
+        return new Result(categories, priceBuckets, total);
+    }
+
+    private void change(String category, BigDecimal price, boolean inStock, int delta) {
+        CategoryCounts counts = byCategory.computeIfAbsent(category, key -> new CategoryCounts());
+        counts.all.add(inStock, delta);
+        if (price != null) {
+            Counts atPrice = counts.byPrice.computeIfAbsent(price, key -> new Counts());
+            atPrice.add(inStock, delta);
+            if (atPrice.total == 0) {
+                counts.byPrice.remove(price);
+            }
+        }
+        if (counts.all.total == 0) {
+            byCategory.remove(category);
+        }
+    }
+
+    private static long countInRange(CategoryCounts counts, Boolean inStock, BigDecimal minPrice, BigDecimal maxPrice) {
+        if (minPrice == null && maxPrice == null) {
+            // Also counts products without a price, like the listing does without a price filter
+            return counts.all.get(inStock);
+        }
+        NavigableMap<BigDecimal, Counts> range = counts.byPrice;
+        if (minPrice != null) {
+            range = range.tailMap(minPrice, true);
+        }
+        if (maxPrice != null) {
+            range = range.headMap(maxPrice, true);
+        }
+        return sum(range, inStock);
+    }
+
+    private static long countInBucket(CategoryCounts counts, Boolean inStock, BigDecimal lower, BigDecimal upper) {
+        NavigableMap<BigDecimal, Counts> range = upper == null
+                ? counts.byPrice.tailMap(lower, true)
+                : counts.byPrice.subMap(lower, true, upper, false);
+        return sum(range, inStock);
+    }
+
+    private static long sum(NavigableMap<BigDecimal, Counts> range, Boolean inStock) {
+        long sum = 0;
+        for (Counts counts : range.values()) {
+            sum += counts.get(inStock);
+        }
+        return sum;
+    }
+}
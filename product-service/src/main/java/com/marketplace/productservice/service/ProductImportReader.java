@@ -0,0 +1,129 @@
+package com.marketplace.productservice.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads an upload one record at a time, either as CSV (RFC 4180 quoting, quoted fields may span lines)
+ * or as plain lines for NDJSON. A record longer than the limit is skipped and reported instead of
+ * being buffered, so memory stays bounded whatever the upload contains.
+ */
+final class ProductImportReader {
+
+    private final Reader reader;
+    private final int maxRecordLength;
+    private long nextLine = 1;
+    private long recordLine;
+
+    /**
+     * A record that cannot be read. The rest of the record has been consumed, so reading can go on.
+     */
+    static final class MalformedRecordException extends Exception {
+        MalformedRecordException(String message) {
+            super(message);
+        }
+    }
+
+    ProductImportReader(Reader reader, int maxRecordLength) {
+        this.reader = reader;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    /**
+     * Line of the upload where the last record returned started.
+     */
+    long recordLine() {
+        return recordLine;
+    }
+
+    /**
+     * @return the fields of the next CSV record, or null at the end of the upload
+     */
+    List<String> nextCsvRecord() throws IOException, MalformedRecordException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        recordLine = nextLine;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int length = 0;
+        while (c != -1) {
+            // The line break that ends the record is not part of it, as in nextLine()
+            if (quoted || c != '\n' && c != '\r') {
+                length++;
+            }
+            if (quoted) {
+                if (c == '"') {
+                    int next = reader.read();
+                    if (next != '"') {
+                        // Closing quote, the character after it is handled as unquoted
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                }
+                if (c == '\n') {
+                    nextLine++;
+                }
+                append(field, c, length);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                nextLine++;
+                break;
+            } else if (c != '\r') {
+                append(field, c, length);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+
+        if (quoted) {
+            throw new MalformedRecordException("Quoted field is not closed before the end of the upload");
+        }
+        if (length > maxRecordLength) {
+            throw new MalformedRecordException("Row is longer than " + maxRecordLength + " characters");
+        }
+        return fields;
+    }
+
+    /**
+     * @return the next line without its line break, or null at the end of the upload
+     */
+    String nextLine() throws IOException, MalformedRecordException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        recordLine = nextLine++;
+
+        StringBuilder line = new StringBuilder();
+        int length = 0;
+        while (c != -1 && c != '\n') {
+            if (c != '\r') {
+                append(line, c, ++length);
+            }
+            c = reader.read();
+        }
+
+        if (length > maxRecordLength) {
+            throw new MalformedRecordException("Row is longer than " + maxRecordLength + " characters");
+        }
+        return line.toString();
+    }
+
+    private void append(StringBuilder builder, int c, int length) {
+        // Past the limit the record is only consumed, it is rejected once its end is reached
+        if (length <= maxRecordLength) {
+            builder.append((char) c);
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.marketplace.productservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.productservice.controller.dto.ProductDto;
+import com.marketplace.productservice.controller.dto.ProductImportEventDto;
+import com.marketplace.productservice.controller.dto.ProductImportFormat;
+import com.marketplace.productservice.entity.Product;
+import com.marketplace.productservice.entity.TimeOrderedUuidGenerator;
+import com.marketplace.productservice.event.ProductCatalogPublisher;
+import com.marketplace.productservice.event.ProductInvalidationBroadcaster;
+import com.marketplace.productservice.repository.ProductBatchWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming bulk import of a seller's catalog.
+ * <p>
+ * The upload is read one row at a time. Each row is checked with the same rules as a single
+ * {@link ProductDto}, and valid rows are inserted in JDBC batches of {@code product.import.batch-size}.
+ * Only the current batch is held in memory, however large the upload is. Rejected rows and a progress
+ * report after every batch are sent to the caller as they happen; rows that were saved stay saved when
+ * a later row or batch fails, and a row the database refuses only rejects itself, not its whole batch.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final List<String> CSV_COLUMNS = List.of("name", "description", "price", "quantity", "category");
+    // Marks a blank row, which is skipped without being reported
+    private static final ProductDto SKIPPED = new ProductDto(null, null, null, null, null);
+
+    private final ProductBatchWriter productBatchWriter;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductListingCache productListingCache;
+    private final ProductCatalogPublisher productCatalogPublisher;
+    private final ProductInvalidationBroadcaster productInvalidationBroadcaster;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxRowLength;
+    private final Counter importedCounter;
+    private final Counter rejectedCounter;
+    private final Timer batchTimer;
+
+    /**
+     * Counts for one import, reported in the progress events.
+     */
+    private static final class Progress {
+        private final long startedAt = System.nanoTime();
+        private long processed;
+        private long imported;
+        private long rejected;
+
+        ProductImportEventDto toEvent(String type) {
+            long elapsedNanos = Math.max(1, System.nanoTime() - startedAt);
+            return ProductImportEventDto.builder()
+                    .type(type)
+                    .processed(processed)
+                    .imported(imported)
+                    .rejected(rejected)
+                    .rowsPerSecond(processed * 1_000_000_000L / elapsedNanos)
+                    .build();
+        }
+    }
+
+    public ProductImportService(ProductBatchWriter productBatchWriter, Validator validator, ObjectMapper objectMapper,
+                                ProductSearchIndex productSearchIndex, ProductListingCache productListingCache,
+                                ProductCatalogPublisher productCatalogPublisher,
+                                ProductInvalidationBroadcaster productInvalidationBroadcaster,
+                                PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                @Value("${product.import.batch-size:1000}") int batchSize,
+                                @Value("${product.import.max-row-length:8192}") int maxRowLength) {
+        this.productBatchWriter = productBatchWriter;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.productSearchIndex = productSearchIndex;
+        this.productListingCache = productListingCache;
+        this.productCatalogPublisher = productCatalogPublisher;
+        this.productInvalidationBroadcaster = productInvalidationBroadcaster;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxRowLength = maxRowLength;
+        this.importedCounter = Counter.builder("products.import.rows")
+                .tag("outcome", "imported")
+                .description("Rows saved by bulk imports")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("products.import.rows")
+                .tag("outcome", "rejected")
+                .description("Rows rejected by bulk imports")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("products.import.batch")
+                .description("Time to insert one batch of imported products")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Imports every valid row of the upload for the seller.
+     *
+     * @param events receives each rejected row, a progress report after every batch and the final summary
+     * @return the final summary, also passed to {@code events}
+     */
+    public ProductImportEventDto importProducts(Reader upload, ProductImportFormat format, String sellerId,
+                                                Consumer<ProductImportEventDto> events) throws IOException {
+        ProductImportReader reader = new ProductImportReader(upload, maxRowLength);
+        Progress progress = new Progress();
+        List<Product> batch = new ArrayList<>(batchSize);
+        List<Long> batchLines = new ArrayList<>(batchSize);
+
+        Map<String, Integer> columns = null;
+        if (format == ProductImportFormat.CSV) {
+            columns = readHeader(reader, events);
+            if (columns == null) {
+                return finish(progress, events);
+            }
+        }
+
+        while (true) {
+            ProductDto row;
+            try {
+                row = format == ProductImportFormat.CSV ? nextCsvRow(reader, columns) : nextJsonRow(reader);
+            } catch (ProductImportReader.MalformedRecordException | IllegalArgumentException e) {
+                progress.processed++;
+                reject(progress, reader.recordLine(), e.getMessage(), events);
+                continue;
+            }
+            if (row == null) {
+                break;
+            }
+            if (row == SKIPPED) {
+                continue;
+            }
+            progress.processed++;
+
+            Set<ConstraintViolation<ProductDto>> violations = validator.validate(row);
+            if (!violations.isEmpty()) {
+                String message = violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(", "));
+                reject(progress, reader.recordLine(), message, events);
+                continue;
+            }
+
+            batch.add(toProduct(row, sellerId));
+            batchLines.add(reader.recordLine());
+            if (batch.size() == batchSize) {
+                save(batch, batchLines, progress, events);
+            }
+        }
+        if (!batch.isEmpty()) {
+            save(batch, batchLines, progress, events);
+        }
+        return finish(progress, events);
+    }
+
+    private Map<String, Integer> readHeader(ProductImportReader reader, Consumer<ProductImportEventDto> events)
+            throws IOException {
+        List<String> header;
+        try {
+            header = reader.nextCsvRecord();
+        } catch (ProductImportReader.MalformedRecordException e) {
+            events.accept(ProductImportEventDto.error(reader.recordLine(), e.getMessage()));
+            return null;
+        }
+        if (header == null) {
+            return null;
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = CSV_COLUMNS.stream().filter(column -> !columns.containsKey(column)).toList();
+        if (!missing.isEmpty()) {
+            events.accept(ProductImportEventDto.error(reader.recordLine(),
+                    "Header is missing the columns: " + String.join(", ", missing)));
+            return null;
+        }
+        return columns;
+    }
+
+    private ProductDto nextCsvRow(ProductImportReader reader, Map<String, Integer> columns)
+            throws IOException, ProductImportReader.MalformedRecordException {
+        List<String> fields = reader.nextCsvRecord();
+        if (fields == null) {
+            return null;
+        }
+        if (fields.size() == 1 && fields.get(0).isBlank()) {
+            return SKIPPED;
+        }
+        return new ProductDto(
+                field(fields, columns, "name"),
+                field(fields, columns, "description"),
+                parse(field(fields, columns, "price"), "price", BigDecimal::new),
+                parse(field(fields, columns, "quantity"), "quantity", Integer::valueOf),
+                field(fields, columns, "category"));
+    }
+
+    private ProductDto nextJsonRow(ProductImportReader reader)
+            throws IOException, ProductImportReader.MalformedRecordException {
+        String line = reader.nextLine();
+        if (line == null) {
+            return null;
+        }
+        if (line.isBlank()) {
+            return SKIPPED;
+        }
+        try {
+            return objectMapper.readValue(line, ProductDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Row is not a valid JSON product: " + e.getOriginalMessage());
+        }
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        int index = columns.get(column);
+        return index < fields.size() ? fields.get(index) : null;
+    }
+
+    private static <T> T parse(String value, String column, Function<String, T> parser) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return parser.apply(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    private static Product toProduct(ProductDto row, String sellerId) {
+        LocalDateTime now = LocalDateTime.now();
+        Product product = ProductDto.mapToProduct(row, sellerId);
+        // Set here because the batch insert bypasses the entity id generator and lifecycle callbacks
+        product.setId(TimeOrderedUuidGenerator.next());
+        product.setCreatedAt(now);
+        product.setUpdatedAt(now);
+        product.setVersion(0L);
+        return product;
+    }
+
+    private void save(List<Product> batch, List<Long> batchLines, Progress progress,
+                      Consumer<ProductImportEventDto> events) {
+        insert(batch, batchLines, progress, events);
+        batch.clear();
+        batchLines.clear();
+        events.accept(progress.toEvent(ProductImportEventDto.PROGRESS));
+    }
+
+    /**
+     * Inserts the products in one transaction. When the database refuses the batch because of a row's
+     * data (a constraint or a value it cannot store), the batch is split in halves and each half is tried
+     * again, down to single rows, so only the offending rows are rejected. A few bad rows in a batch of n
+     * cost about log2(n) extra round trips each.
+     */
+    private void insert(List<Product> products, List<Long> lines, Progress progress,
+                        Consumer<ProductImportEventDto> events) {
+        try {
+            // The catalog events are committed with the products they describe
+            batchTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+                productBatchWriter.insertAll(products);
+                productCatalogPublisher.publishUpserts(products);
+            }));
+            progress.imported += products.size();
+            importedCounter.increment(products.size());
+            afterInsert(products);
+        } catch (DataIntegrityViolationException e) {
+            if (products.size() == 1) {
+                log.warn("Imported product on line {} could not be saved: {}", lines.get(0), e.getMessage());
+                reject(progress, lines.get(0), rowError(e), events);
+                return;
+            }
+            int middle = products.size() / 2;
+            insert(products.subList(0, middle), lines.subList(0, middle), progress, events);
+            insert(products.subList(middle, products.size()), lines.subList(middle, lines.size()), progress, events);
+        } catch (DataAccessException e) {
+            // Not caused by a row (lost connection, timeout), so smaller batches would fail the same way
+            log.error("Failed to insert a batch of {} imported products", products.size(), e);
+            String message = rowError(e);
+            for (Long line : lines) {
+                reject(progress, line, message, events);
+            }
+        }
+    }
+
+    private static String rowError(DataAccessException e) {
+        return "Row could not be saved: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+    }
+
+    private void afterInsert(List<Product> batch) {
+        // One sweep of the listing cache per batch instead of one per product
+        productListingCache.invalidateAll();
+        for (Product product : batch) {
+            productSearchIndex.index(product);
+            productInvalidationBroadcaster.publishUpdate(product.getId(), product.getVersion(), null,
+                    ProductListingCache.Snapshot.of(product));
+        }
+    }
+
+    private void reject(Progress progress, long line, String message, Consumer<ProductImportEventDto> events) {
+        progress.rejected++;
+        rejectedCounter.increment();
+        events.accept(ProductImportEventDto.error(line, message));
+    }
+
+    private static ProductImportEventDto finish(Progress progress, Consumer<ProductImportEventDto> events) {
+        ProductImportEventDto summary = progress.toEvent(ProductImportEventDto.SUMMARY);
+        events.accept(summary);
+        log.info("Imported {} products, rejected {}, at {} rows/s",
+                summary.imported(), summary.rejected(), summary.rowsPerSecond());
+        return summary;
+    }
+}
@@ -0,0 +1,195 @@
+package com.marketplace.productservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.marketplace.productservice.controller.dto.ProductFilterCriteria;
+import com.marketplace.productservice.entity.Product;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Cache of catalog listing pages, keyed by the normalized filters, sort and page.
+ * <p>
+ * A product change only evicts the listings whose filters match the product before or after the
+ * change; every page of such a listing goes, since the product may move between pages. Other
+ * listings keep their entries. The cache is bounded by an estimate of its size in bytes.
+ * <p>
+ * Published as cache.gets{cache=products.listing}, plus products.listing.cache.hit.ratio and
+ * products.listing.cache.memory (estimated bytes).
+ */
+@Component
+public class ProductListingCache {
+
+    // Rough heap cost of a product and its page entry besides the characters of its strings
+    private static final int PRODUCT_OVERHEAD_BYTES = 320;
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    private final Cache<ListingKey, Page<Product>> cache;
+    private final int maxPageSize;
+    // Loads started before an invalidation must not store their result after it
+    private final ReadWriteLock invalidationLock = new ReentrantReadWriteLock();
+    private long generation;
+
+    /**
+     * The fields of a product that listing filters look at.
+     */
+    public record Snapshot(String category, BigDecimal price, Integer quantity) {
+
+        public static Snapshot of(Product product) {
+            return new Snapshot(product.getCategory(), product.getPrice(), product.getQuantity());
+        }
+    }
+
+    private record ListingKey(String category, Boolean inStock, BigDecimal minPrice, BigDecimal maxPrice,
+                              int page, int size, String sort) {
+
+        static ListingKey of(ProductFilterCriteria filters, Pageable pageable) {
+            String category = filters == null || filters.category() == null || filters.category().isBlank()
+                    ? null : filters.category();
+            return new ListingKey(category,
+                    filters == null ? null : filters.inStock(),
+                    filters == null ? null : normalize(filters.minPrice()),
+                    filters == null ? null : normalize(filters.maxPrice()),
+                    pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort().toString());
+        }
+
+        // Same rules as ProductSpecification.findByCriteria
+        boolean matches(Snapshot product) {
+            if (product == null) {
+                return false;
+            }
+            if (category != null && !category.equals(product.category())) {
+                return false;
+            }
+            if (inStock != null && !(inStock ? product.quantity() != null && product.quantity() > 0
+                    : product.quantity() != null && product.quantity() == 0)) {
+                return false;
+            }
+            if (minPrice != null && (product.price() == null || product.price().compareTo(minPrice) < 0)) {
+                return false;
+            }
+            return maxPrice == null || product.price() != null && product.price().compareTo(maxPrice) <= 0;
+        }
+
+        private static BigDecimal normalize(BigDecimal price) {
+            // 50, 50.0 and 50.00 are the same filter
+            return price == null ? null : price.stripTrailingZeros();
+        }
+    }
+
+    public ProductListingCache(MeterRegistry meterRegistry,
+                               @Value("${product.listing-cache.maximum-weight-bytes:33554432}") long maximumWeightBytes,
+                               @Value("${product.listing-cache.ttl-seconds:30}") long ttlSeconds,
+                               @Value("${product.listing-cache.max-page-size:100}") int maxPageSize) {
+        this.maxPageSize = maxPageSize;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeightBytes)
+                .weigher((ListingKey key, Page<Product> page) -> estimateBytes(page))
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products.listing");
+        Gauge.builder("products.listing.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of listing requests answered from the cache")
+                .register(meterRegistry);
+        Gauge.builder("products.listing.cache.memory", cache, ProductListingCache::weightedSize)
+                .description("Estimated heap used by cached listing pages")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached page or loads it. Unpaged requests and pages larger than
+     * {@code product.listing-cache.max-page-size} bypass the cache.
+     */
+    public Page<Product> get(ProductFilterCriteria filters, Pageable pageable, Supplier<Page<Product>> loader) {
+        if (pageable.isUnpaged() || pageable.getPageSize() > maxPageSize) {
+            return loader.get();
+        }
+
+        ListingKey key = ListingKey.of(filters, pageable);
+        Page<Product> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long startedAt = currentGeneration();
+        Page<Product> page = loader.get();
+        invalidationLock.readLock().lock();
+        try {
+            // Any invalidation since the load started may concern this page, so it is served but not kept
+            if (generation == startedAt) {
+                cache.put(key, page);
+            }
+        } finally {
+            invalidationLock.readLock().unlock();
+        }
+        return page;
+    }
+
+    /**
+     * Evicts the listings that could contain the product before or after a change.
+     *
+     * @param previous the product before the change, null when it was created
+     * @param current  the product after the change, null when it was deleted
+     */
+    public void invalidate(Snapshot previous, Snapshot current) {
+        invalidationLock.writeLock().lock();
+        try {
+            generation++;
+        } finally {
+            invalidationLock.writeLock().unlock();
+        }
+        cache.asMap().keySet().removeIf(key -> key.matches(previous) || key.matches(current));
+    }
+
+    /**
+     * Evicts every listing, for writes that touch too many products to check them one by one.
+     */
+    public void invalidateAll() {
+        invalidationLock.writeLock().lock();
+        try {
+            generation++;
+        } finally {
+            invalidationLock.writeLock().unlock();
+        }
+        cache.invalidateAll();
+    }
+
+    private long currentGeneration() {
+        invalidationLock.readLock().lock();
+        try {
+            return generation;
+        } finally {
+            invalidationLock.readLock().unlock();
+        }
+    }
+
+    private static double weightedSize(Cache<ListingKey, Page<Product>> cache) {
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    private static int estimateBytes(Page<Product> page) {
+        long bytes = ENTRY_OVERHEAD_BYTES;
+        for (Product product : page.getContent()) {
+            bytes += PRODUCT_OVERHEAD_BYTES + length(product.getName()) + length(product.getDescription())
+                    + length(product.getImageUrl()) + length(product.getCategory()) + length(product.getSellerId());
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
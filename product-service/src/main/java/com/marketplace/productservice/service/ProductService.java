@@ -1,27 +1,72 @@
 package com.marketplace.productservice.service;
 
 import com.marketplace.productservice.controller.dto.ApiResponseDTO;
+import com.marketplace.productservice.controller.dto.PriceBucketDto;
+import com.marketplace.productservice.controller.dto.ProductCursor;
+import com.marketplace.productservice.controller.dto.ProductFacetsDto;
 import com.marketplace.productservice.controller.dto.ProductFilterCriteria;
+import com.marketplace.productservice.controller.dto.ProductPageDto;
+import com.marketplace.productservice.controller.dto.ProductSort;
+import com.marketplace.productservice.controller.dto.StockItemDto;
 import com.marketplace.productservice.entity.Product;
+import com.marketplace.productservice.entity.StockReservation;
+import com.marketplace.productservice.entity.StockReservationItem;
+import com.marketplace.productservice.entity.StockReservationStatus;
+import com.marketplace.productservice.event.ProductCatalogPublisher;
+import com.marketplace.productservice.event.ProductInvalidationBroadcaster;
+import com.marketplace.productservice.exception.InsufficientStockException;
+import com.marketplace.productservice.exception.InvalidRequestException;
 import com.marketplace.productservice.exception.ProductNotFoundException;
+import com.marketplace.productservice.exception.StockReservationReleasedException;
 import com.marketplace.productservice.repository.ProductRepository;
+import com.marketplace.productservice.repository.ProductState;
+import com.marketplace.productservice.repository.StockReservationRepository;
 import lombok.AllArgsConstructor;
 import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 public class ProductService implements IProductService {
 
+    private static final Logger log = LoggerFactory.getLogger(ProductService.class);
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_PRICE_BUCKETS = 50;
+
     private final ProductRepository productRepository;
+    private final StockReservationRepository stockReservationRepository;
+    private final ProductCatalogPublisher productCatalogPublisher;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductCache productCache;
+    private final ProductListingCache productListingCache;
+    private final ProductInvalidationBroadcaster productInvalidationBroadcaster;
 
     @Override
     public ApiResponseDTO<Page<Product>> getAllProducts(ProductFilterCriteria filters, Pageable page) {
@@ -29,7 +74,60 @@ public class ProductService implements IProductService {
         Specification<Product> spec = ProductSpecification.findByCriteria(filters);
 
         // This method should return a list of all products.
-        Page<Product> products = productRepository.findAll(spec, page);
+        Page<Product> products = productListingCache.get(filters, page, () -> productRepository.findAll(spec, page));
+
+        return ApiResponseDTO.<Page<Product>>builder()
+                .data(products)
+                .message(products.isEmpty() ? "No products found" : "Products retrieved successfully")
+                .success(true)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ApiResponseDTO<ProductPageDto> getProductsAfter(ProductFilterCriteria filters, ProductSort sort, String cursor,
+                                                           Integer size) {
+        int pageSize = resolvePageSize(size);
+        Specification<Product> spec = ProductSpecification.findByCriteria(filters);
+        if (cursor != null && !cursor.isBlank()) {
+            ProductCursor after = ProductCursor.decode(cursor);
+            if (after.sort() != sort) {
+                throw new InvalidRequestException("The cursor belongs to a listing sorted by " + after.sort());
+            }
+            spec = spec.and(ProductSpecification.after(after));
+        }
+
+        // One extra row tells us whether there is a next page without a COUNT query
+        List<Product> products = productRepository.findBy(spec,
+                query -> query.sortBy(sort.toSort()).limit(pageSize + 1).all());
+
+        boolean hasMore = products.size() > pageSize;
+        List<Product> page = hasMore ? products.subList(0, pageSize) : products;
+        String nextCursor = hasMore ? ProductCursor.after(page.get(page.size() - 1), sort).encode() : null;
+
+        return ApiResponseDTO.<ProductPageDto>builder()
+                .data(ProductPageDto.builder()
+                        .items(page)
+                        .nextCursor(nextCursor)
+                        .hasMore(hasMore)
+                        .build())
+                .message(page.isEmpty() ? "No products found" : "Products retrieved successfully")
+                .success(true)
+                .build();
+    }
+
+    @Override
+    public ApiResponseDTO<Page<Product>> searchProducts(String query, ProductFilterCriteria filters, Pageable page) {
+        ProductSearchIndex.SearchResult result = productSearchIndex.search(query, filters, page);
+
+        // Only the products on the requested page are loaded, then put back in ranking order
+        Map<UUID, Product> productsById = new HashMap<>();
+        productRepository.findAllById(result.ids()).forEach(product -> productsById.put(product.getId(), product));
+        List<Product> ranked = result.ids().stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        Page<Product> products = new PageImpl<>(ranked, page, result.total());
 
         return ApiResponseDTO.<Page<Product>>builder()
                 .data(products)
@@ -39,9 +137,51 @@ public class ProductService implements IProductService {
     }
 
     @Override
-    public ApiResponseDTO<Product> getProductById(String id) {
+    public ApiResponseDTO<Integer> rebuildSearchIndex() {
+        int indexed = productSearchIndex.rebuild();
+
+        return ApiResponseDTO.<Integer>builder()
+                .message("Search index rebuilt successfully")
+                .success(true)
+                .data(indexed)
+                .build();
+    }
+
+    @Override
+    public ApiResponseDTO<ProductFacetsDto> getFacets(ProductFilterCriteria filters, List<BigDecimal> priceBuckets) {
+        List<BigDecimal> bounds = priceBuckets == null || priceBuckets.isEmpty()
+                ? productSearchIndex.getDefaultPriceBuckets()
+                : List.copyOf(priceBuckets.stream()
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toCollection(TreeSet::new)));
+        if (bounds.size() > MAX_PRICE_BUCKETS) {
+            throw new InvalidRequestException("A maximum of " + MAX_PRICE_BUCKETS + " price buckets can be requested");
+        }
+
+        // Served from the aggregates kept next to the search index, the product table is not queried
+        ProductFacetCounts.Result counts = productSearchIndex.facets(filters, bounds);
+
+        List<PriceBucketDto> buckets = new ArrayList<>(bounds.size());
+        for (int i = 0; i < bounds.size(); i++) {
+            BigDecimal to = i + 1 < bounds.size() ? bounds.get(i + 1) : null;
+            buckets.add(new PriceBucketDto(bounds.get(i), to, counts.priceBuckets().get(i)));
+        }
+
+        return ApiResponseDTO.<ProductFacetsDto>builder()
+                .data(ProductFacetsDto.builder()
+                        .total(counts.total())
+                        .categories(counts.categories())
+                        .priceBuckets(buckets)
+                        .build())
+                .message("Facets retrieved successfully")
+                .success(true)
+                .build();
+    }
+
+    @Override
+    public ApiResponseDTO<Product> getProductById(UUID id) {
         //This method should return a product by ID.
-        Product product = productRepository.findById(id).orElseThrow(
+        Product product = productCache.get(id, productRepository::findById).orElseThrow(
                 () -> new ProductNotFoundException("Product not found with ID: " + id, HttpStatus.NOT_FOUND)
         );
 
@@ -56,10 +196,33 @@ public class ProductService implements IProductService {
     }
 
     @Override
+    public ApiResponseDTO<List<Product>> getProductsByIds(List<UUID> ids) {
+        // Duplicated IDs are collapsed so the lookup runs as a single IN query.
+        List<Product> products = productRepository.findAllById(new LinkedHashSet<>(ids));
+
+        // Missing products are simply absent from the result, the caller decides how to handle them.
+        return ApiResponseDTO.<List<Product>>builder()
+                .message(products.isEmpty() ? "No products found" : "Products retrieved successfully")
+                .success(true)
+                .data(products)
+                .build();
+    }
+
+    @Override
+    @Transactional
     public ApiResponseDTO<Product> createProduct(@NonNull Product product) {
         // This method should create a new product.
 
         Product saveProduct = productRepository.save(product);
+        // Committed with the product, the outbox relay then sends it to the catalog topic
+        productCatalogPublisher.publishUpsert(saveProduct);
+        ProductListingCache.Snapshot created = ProductListingCache.Snapshot.of(saveProduct);
+        afterCommit(() -> {
+            productSearchIndex.index(saveProduct);
+            productListingCache.invalidate(null, created);
+            // Other replicas have not seen the product yet, so it is broadcast to reach their search index
+            productInvalidationBroadcaster.publishUpdate(saveProduct.getId(), saveProduct.getVersion(), null, created);
+        });
 
         // If the product is created successfully, return it wrapped in an ApiResponseDTO.
         return ApiResponseDTO.<Product>builder()
@@ -71,18 +234,27 @@ public class ProductService implements IProductService {
     }
 
     @Override
-    public ApiResponseDTO<Product> updateProduct(String id, Product product) {
+    public ApiResponseDTO<Product> updateProduct(UUID id, Product product) {
         return null;
     }
 
     @Override
-    public ApiResponseDTO<Void> deleteProduct(String id) {
+    @Transactional
+    public ApiResponseDTO<Void> deleteProduct(UUID id) {
         // This method should delete a product by ID.
         Product product = productRepository.findById(id).orElseThrow(
                 () -> new ProductNotFoundException("Product not found with ID: " + id, HttpStatus.NOT_FOUND)
         );
 
+        ProductListingCache.Snapshot previous = ProductListingCache.Snapshot.of(product);
         productRepository.delete(product);
+        productCatalogPublisher.publishDelete(id);
+        afterCommit(() -> {
+            productCache.invalidate(id);
+            productListingCache.invalidate(previous, null);
+            productSearchIndex.remove(id);
+            productInvalidationBroadcaster.publishDelete(id, previous);
+        });
 
 
         return ApiResponseDTO.<Void>builder()
@@ -93,12 +265,14 @@ public class ProductService implements IProductService {
     }
 
     @Override
-    public ApiResponseDTO<Product> updatePartialProduct(String id, Product product) {
+    @Transactional
+    public ApiResponseDTO<Product> updatePartialProduct(UUID id, Product product) {
         Optional<Product> productUpdate = productRepository.findById(id);
 
         if (productUpdate.isEmpty()) {
             throw new ProductNotFoundException("Product not found with ID: " + id, HttpStatus.NOT_FOUND);
         }
+        ProductListingCache.Snapshot previous = ProductListingCache.Snapshot.of(productUpdate.get());
 
         if (product.getName() != null) {
             productUpdate.get().setName(product.getName());
@@ -113,15 +287,166 @@ public class ProductService implements IProductService {
             productUpdate.get().setQuantity(product.getQuantity());
         }
 
-        productRepository.save(productUpdate.get());
+        // The version check turns a concurrent update of the same product into a 409 instead of a lost write.
+        // Flushed here so the catalog event carries the new updatedAt and version.
+        Product savedProduct = productRepository.saveAndFlush(productUpdate.get());
+        ProductListingCache.Snapshot current = ProductListingCache.Snapshot.of(savedProduct);
+        productCatalogPublisher.publishUpsert(savedProduct);
+        afterCommit(() -> {
+            productCache.invalidate(id);
+            productListingCache.invalidate(previous, current);
+            productSearchIndex.index(savedProduct);
+            productInvalidationBroadcaster.publishUpdate(id, savedProduct.getVersion(), previous, current);
+        });
 
 
         return ApiResponseDTO.<Product>builder()
                 .message("Product updated successfully")
                 .success(true)
-                .data(productUpdate.get())
+                .data(savedProduct)
+                .build();
+    }
+
+    @Override
+    @Transactional
+    public ApiResponseDTO<Void> reserveStock(UUID reservationId, List<StockItemDto> items) {
+        LocalDateTime now = LocalDateTime.now();
+
+        // A retried request finds its reservation already there and does not take the stock again
+        if (stockReservationRepository.insertIfAbsent(reservationId, StockReservationStatus.RESERVED.name(), now) == 0) {
+            StockReservation existing = stockReservationRepository.findByIdForUpdate(reservationId).orElseThrow(
+                    () -> new StockReservationReleasedException(reservationId)
+            );
+            if (existing.getStatus() == StockReservationStatus.RELEASED) {
+                throw new StockReservationReleasedException(reservationId);
+            }
+            return ApiResponseDTO.<Void>builder()
+                    .message("Stock already reserved")
+                    .success(true)
+                    .data(null)
+                    .build();
+        }
+
+        // All items succeed or the transaction rolls back the ones already taken, and the reservation row with them.
+        Map<UUID, Integer> quantities = quantitiesByProduct(items);
+        for (Map.Entry<UUID, Integer> item : quantities.entrySet()) {
+            if (productRepository.reserveStock(item.getKey(), item.getValue(), now) == 0) {
+                Product product = productRepository.findById(item.getKey()).orElseThrow(
+                        () -> new ProductNotFoundException("Product not found with ID: " + item.getKey(), HttpStatus.NOT_FOUND)
+                );
+                int available = product.getQuantity() != null ? product.getQuantity() : 0;
+                throw new InsufficientStockException(product.getId(), product.getName(), item.getValue(), available);
+            }
+        }
+
+        StockReservation reservation = stockReservationRepository.findById(reservationId).orElseThrow();
+        quantities.forEach((productId, quantity) -> reservation.getItems().add(new StockReservationItem(productId, quantity)));
+
+        List<ProductState> states = productRepository.findStatesByIdIn(quantities.keySet());
+        afterCommit(() -> {
+            productCache.invalidateAll(quantities.keySet());
+            quantities.forEach((productId, quantity) -> productSearchIndex.adjustQuantity(productId, -quantity));
+            states.forEach(state -> stockChanged(state, quantities.get(state.getId())));
+        });
+
+        return ApiResponseDTO.<Void>builder()
+                .message("Stock reserved successfully")
+                .success(true)
+                .data(null)
+                .build();
+    }
+
+    @Override
+    @Transactional
+    public ApiResponseDTO<Void> releaseStock(UUID reservationId) {
+        LocalDateTime now = LocalDateTime.now();
+
+        // Released before it was reserved (or never reserved): the RELEASED row makes a late reserve fail
+        if (stockReservationRepository.insertIfAbsent(reservationId, StockReservationStatus.RELEASED.name(), now) == 1) {
+            log.info("Released unknown stock reservation {}, nothing to give back", reservationId);
+            return ApiResponseDTO.<Void>builder()
+                    .message("Nothing was reserved")
+                    .success(true)
+                    .data(null)
+                    .build();
+        }
+
+        StockReservation reservation = stockReservationRepository.findByIdForUpdate(reservationId).orElseThrow();
+        if (reservation.getStatus() == StockReservationStatus.RELEASED) {
+            return ApiResponseDTO.<Void>builder()
+                    .message("Stock already released")
+                    .success(true)
+                    .data(null)
+                    .build();
+        }
+        reservation.setStatus(StockReservationStatus.RELEASED);
+        reservation.setUpdatedAt(now);
+
+        Map<UUID, Integer> quantities = new TreeMap<>();
+        reservation.getItems().forEach(item -> quantities.put(item.getProductId(), item.getQuantity()));
+        for (UUID productId : List.copyOf(quantities.keySet())) {
+            // Products deleted since the reservation are skipped, the release itself must not fail forever
+            if (productRepository.releaseStock(productId, quantities.get(productId), now) == 0) {
+                log.warn("Product {} of stock reservation {} no longer exists", productId, reservationId);
+                quantities.remove(productId);
+            }
+        }
+
+        List<ProductState> states = productRepository.findStatesByIdIn(quantities.keySet());
+        afterCommit(() -> {
+            productCache.invalidateAll(quantities.keySet());
+            quantities.forEach(productSearchIndex::adjustQuantity);
+            states.forEach(state -> stockChanged(state, -quantities.get(state.getId())));
+        });
+
+        return ApiResponseDTO.<Void>builder()
+                .message("Stock released successfully")
+                .success(true)
+                .data(null)
                 .build();
     }
 
+    private static int resolvePageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (size < 1) {
+            throw new InvalidRequestException("Page size must be at least 1");
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    private Map<UUID, Integer> quantitiesByProduct(List<StockItemDto> items) {
+        // Sorted by ID so concurrent multi-item reservations lock rows in the same order and cannot deadlock.
+        Map<UUID, Integer> quantities = new TreeMap<>();
+        for (StockItemDto item : items) {
+            quantities.merge(item.productId(), item.quantity(), Integer::sum);
+        }
+        return quantities;
+    }
 
+    /**
+     * Evicts the listings and notifies the other replicas of a committed stock change.
+     *
+     * @param taken units taken out of stock by the change, negative when units were returned
+     */
+    private void stockChanged(ProductState state, int taken) {
+        ProductListingCache.Snapshot current = new ProductListingCache.Snapshot(state.getCategory(), state.getPrice(),
+                state.getQuantity());
+        Integer quantityBefore = state.getQuantity() == null ? null : state.getQuantity() + taken;
+        ProductListingCache.Snapshot previous = new ProductListingCache.Snapshot(state.getCategory(), state.getPrice(),
+                quantityBefore);
+        productListingCache.invalidate(previous, current);
+        productInvalidationBroadcaster.publishUpdate(state.getId(), state.getVersion(), previous, current);
+    }
+
+    private static void afterCommit(Runnable action) {
+        // The cache, the index and the other replicas only see changes that were actually committed
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
 }
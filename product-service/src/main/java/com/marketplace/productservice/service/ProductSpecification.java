@@ -1,13 +1,19 @@
 package com.marketplace.productservice.service;
 
+import com.marketplace.productservice.controller.dto.ProductCursor;
 import com.marketplace.productservice.controller.dto.ProductFilterCriteria;
 import com.marketplace.productservice.entity.Product;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 @Component
 public class ProductSpecification {
@@ -54,4 +60,31 @@ public class ProductSpecification {
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
     }
-}
\ No newline at end of file
+
+    public static Specification<Product> after(ProductCursor cursor) {
+        // Keyset: productos estrictamente posteriores al cursor según (clave de orden, id).
+        // Equivale a "key > :key OR (key = :key AND id > :id)", invirtiendo las comparaciones en orden descendente,
+        // y se resuelve como un rango sobre los índices (price, id) / (created_at, id) sin OFFSET.
+        return (root, query, criteriaBuilder) -> {
+            boolean ascending = cursor.sort().isAscending();
+            Path<UUID> id = root.get("id");
+            Predicate afterId = beyond(criteriaBuilder, id, cursor.id(), ascending);
+
+            if (cursor.price() != null) {
+                Path<BigDecimal> price = root.get("price");
+                return criteriaBuilder.or(
+                        beyond(criteriaBuilder, price, cursor.price(), ascending),
+                        criteriaBuilder.and(criteriaBuilder.equal(price, cursor.price()), afterId));
+            }
+            Path<LocalDateTime> createdAt = root.get("createdAt");
+            return criteriaBuilder.or(
+                    beyond(criteriaBuilder, createdAt, cursor.createdAt(), ascending),
+                    criteriaBuilder.and(criteriaBuilder.equal(createdAt, cursor.createdAt()), afterId));
+        };
+    }
+
+    private static <T extends Comparable<? super T>> Predicate beyond(CriteriaBuilder criteriaBuilder, Path<T> path,
+                                                                       T value, boolean ascending) {
+        return ascending ? criteriaBuilder.greaterThan(path, value) : criteriaBuilder.lessThan(path, value);
+    }
+}
@@ -0,0 +1,42 @@
+package com.marketplace.productservice.service;
+
+import com.marketplace.productservice.repository.StockReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Deletes reservations that were settled long ago. The retention has to outlast any release still
+ * queued in order-service's outbox, otherwise that release would find nothing to give back.
+ */
+@Component
+public class StockReservationCleanup {
+
+    private static final Logger log = LoggerFactory.getLogger(StockReservationCleanup.class);
+
+    private final StockReservationRepository stockReservationRepository;
+    private final Duration retention;
+
+    public StockReservationCleanup(StockReservationRepository stockReservationRepository,
+                                   @Value("${product.stock-reservation.retention-hours:168}") long retentionHours) {
+        this.stockReservationRepository = stockReservationRepository;
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    @Scheduled(fixedDelayString = "${product.stock-reservation.cleanup-interval-ms:3600000}")
+    @Transactional
+    public void purgeSettledReservations() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        int deleted = stockReservationRepository.deleteUpdatedBefore(cutoff);
+
+        if (deleted > 0) {
+            log.info("Purged {} stock reservations last updated before {}", deleted, cutoff);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+CREATE TABLE product
+(
+    id          VARCHAR(255) NOT NULL,
+    name        VARCHAR(255),
+    description VARCHAR(255),
+    price       NUMERIC(38, 2),
+    quantity    INTEGER,
+    image_url   VARCHAR(255),
+    category    VARCHAR(255),
+    seller_id   VARCHAR(255) NOT NULL,
+    created_at  TIMESTAMP(6),
+    updated_at  TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+-- ProductSpecification filters on category equality plus a price range, with or without inStock
+CREATE INDEX idx_product_category_price ON product (category, price);
+-- Price range without a category
+CREATE INDEX idx_product_price ON product (price);
+-- inStock=true is the common storefront filter, so in-stock rows get their own smaller index
+CREATE INDEX idx_product_in_stock_category_price ON product (category, price) WHERE quantity > 0;
+-- A seller's catalog, newest first
+CREATE INDEX idx_product_seller_created ON product (seller_id, created_at);
@@ -0,0 +1,3 @@
+-- Product ids are UUIDv7 values; the native uuid type stores them in 16 bytes instead of a 36-character varchar
+ALTER TABLE product
+    ALTER COLUMN id TYPE UUID USING id::uuid;
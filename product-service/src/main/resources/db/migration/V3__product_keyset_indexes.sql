@@ -0,0 +1,8 @@
+-- The cursor listing orders by (price, id) or (created_at, id); with id in the index every page,
+-- however deep, is a range scan that stops after page size + 1 rows
+DROP INDEX idx_product_price;
+CREATE INDEX idx_product_price_id ON product (price, id);
+CREATE INDEX idx_product_created_id ON product (created_at, id);
+
+DROP INDEX idx_product_category_price;
+CREATE INDEX idx_product_category_price_id ON product (category, price, id);
@@ -0,0 +1,2 @@
+-- Bumped on every write, so replicas can tell whether the copy they cache is older than a change
+ALTER TABLE product ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
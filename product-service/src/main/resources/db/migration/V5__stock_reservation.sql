@@ -0,0 +1,21 @@
+-- One row per reservation id chosen by the caller, so a retried reserve or release is recognised
+-- instead of being applied twice. A release that arrives first leaves a RELEASED row behind, which
+-- makes a late reserve with the same id fail instead of taking stock nobody will give back.
+CREATE TABLE stock_reservation
+(
+    id         UUID        NOT NULL PRIMARY KEY,
+    status     VARCHAR(16) NOT NULL,
+    created_at TIMESTAMP   NOT NULL,
+    updated_at TIMESTAMP   NOT NULL
+);
+
+-- The cleanup deletes settled reservations by age
+CREATE INDEX idx_stock_reservation_updated_at ON stock_reservation (updated_at);
+
+CREATE TABLE stock_reservation_item
+(
+    reservation_id UUID    NOT NULL REFERENCES stock_reservation (id) ON DELETE CASCADE,
+    product_id     UUID    NOT NULL,
+    quantity       INTEGER NOT NULL,
+    PRIMARY KEY (reservation_id, product_id)
+);
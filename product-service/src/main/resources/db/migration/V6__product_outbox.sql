@@ -0,0 +1,18 @@
+-- Catalog events waiting to be relayed to Kafka, written in the transaction that changes the product.
+-- A NULL payload is a tombstone for a deleted product.
+CREATE TABLE product_outbox
+(
+    id           UUID         NOT NULL PRIMARY KEY,
+    aggregate_id UUID         NOT NULL,
+    topic        VARCHAR(255) NOT NULL,
+    event_key    VARCHAR(255) NOT NULL,
+    payload      TEXT,
+    attempts     INTEGER      NOT NULL DEFAULT 0,
+    created_at   TIMESTAMP    NOT NULL,
+    sent_at      TIMESTAMP
+);
+
+-- The relay scans pending rows (sent_at IS NULL) oldest first and the cleanup deletes by sent_at
+CREATE INDEX idx_product_outbox_sent_at_created_at ON product_outbox (sent_at, created_at);
+-- The relay only takes the oldest pending event of each product, looked up here
+CREATE INDEX idx_product_outbox_pending_aggregate ON product_outbox (aggregate_id, created_at) WHERE sent_at IS NULL;
@@ -0,0 +1,109 @@
+package com.marketplace.productservice.controller.dto;
+
+import com.marketplace.productservice.entity.Product;
+import com.marketplace.productservice.exception.GlobalExceptionHandler;
+import com.marketplace.productservice.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpStatus;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductCursorTest {
+
+    private static final String ID = "0190a5b2-7c3e-7def-8abc-0123456789ab";
+
+    private final Product product = Product.builder()
+            .id(UUID.fromString(ID))
+            .price(new BigDecimal("19.90"))
+            .createdAt(LocalDateTime.of(2024, 1, 15, 10, 30, 0, 123_456_000))
+            .build();
+
+    @ParameterizedTest
+    @EnumSource(ProductSort.class)
+    void roundTripsForEverySort(ProductSort sort) {
+        ProductCursor cursor = ProductCursor.after(product, sort);
+
+        String token = cursor.encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+        assertThat(ProductCursor.decode(token)).isEqualTo(cursor);
+        assertThat(ProductCursor.decode(token).sort()).isEqualTo(sort);
+    }
+
+    @Test
+    void keepsOnlyTheKeyOfItsSort() {
+        assertThat(ProductCursor.after(product, ProductSort.PRICE_ASC))
+                .isEqualTo(new ProductCursor(ProductSort.PRICE_ASC, new BigDecimal("19.90"), null, product.getId()));
+        assertThat(ProductCursor.after(product, ProductSort.NEWEST))
+                .isEqualTo(new ProductCursor(ProductSort.NEWEST, null, product.getCreatedAt(), product.getId()));
+    }
+
+    @Test
+    void roundTripsCreationTimesWithoutFraction() {
+        Product createdOnTheMinute = Product.builder()
+                .id(product.getId())
+                .createdAt(LocalDateTime.of(2024, 1, 15, 10, 30))
+                .build();
+        ProductCursor cursor = ProductCursor.after(createdOnTheMinute, ProductSort.OLDEST);
+
+        assertThat(ProductCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "NEWEST|2024-01-15T10:30",
+            "PRICE_ASC|19.90|" + ID + "|extra",
+            "SIDEWAYS|19.90|" + ID,
+            "price_asc|19.90|" + ID,
+            "PRICE_ASC|nineteen|" + ID,
+            "PRICE_ASC||" + ID,
+            "NEWEST|yesterday|" + ID,
+            "NEWEST|2024-01-15T10:30|not-a-uuid",
+            "NEWEST|2024-01-15T10:30|"
+    })
+    void rejectsMalformedCursors(String raw) {
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> ProductCursor.decode(token))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessage("Invalid pagination cursor");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"not a cursor", "%%%", "abc=def", "A"})
+    void rejectsTokensThatAreNotBase64(String token) {
+        assertThatThrownBy(() -> ProductCursor.decode(token))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    void rejectsACursorWhoseSortWasSwappedForOneWithAnotherKey() {
+        String raw = new String(Base64.getUrlDecoder().decode(
+                ProductCursor.after(product, ProductSort.PRICE_ASC).encode()), StandardCharsets.UTF_8);
+        String tampered = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                raw.replace("PRICE_ASC", "NEWEST").getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> ProductCursor.decode(tampered))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    void invalidCursorIsABadRequest() {
+        var response = new GlobalExceptionHandler()
+                .handleInvalidRequest(new InvalidRequestException("Invalid pagination cursor"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody().message()).isEqualTo("Invalid pagination cursor");
+    }
+}
@@ -0,0 +1,153 @@
+package com.marketplace.productservice.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.productservice.config.KafkaTopics;
+import com.marketplace.productservice.entity.Product;
+import com.marketplace.productservice.service.ProductCache;
+import com.marketplace.productservice.service.ProductListingCache;
+import com.marketplace.productservice.service.ProductSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two broadcasters stand for two replicas sharing the invalidation topic: whatever one publishes is
+ * delivered to both, as the Kafka listener of each replica would.
+ */
+class ProductInvalidationBroadcasterTest {
+
+    private static final ProductListingCache.Snapshot BEFORE =
+            new ProductListingCache.Snapshot("kitchen", new BigDecimal("9.90"), 3);
+    private static final ProductListingCache.Snapshot AFTER =
+            new ProductListingCache.Snapshot("kitchen", new BigDecimal("7.90"), 3);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UUID productId = UUID.randomUUID();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Replica writer;
+    private Replica reader;
+
+    @BeforeEach
+    void setUp() {
+        writer = new Replica();
+        reader = new Replica();
+        reader.productCache.get(productId, this::loadVersion3);
+    }
+
+    @Test
+    void replicaSkipsTheMessagesItSentItself() {
+        writer.broadcaster.publishUpdate(productId, 4, BEFORE, AFTER);
+
+        writer.broadcaster.onInvalidation(writer.lastPayload());
+
+        verifyNoInteractions(writer.productListingCache, writer.productSearchIndex);
+    }
+
+    @Test
+    void updateEvictsTheOlderCopyTheListingsAndReloadsTheIndex() {
+        writer.broadcaster.publishUpdate(productId, 4, BEFORE, AFTER);
+
+        reader.broadcaster.onInvalidation(writer.lastPayload());
+
+        verify(reader.productListingCache).invalidate(BEFORE, AFTER);
+        verify(reader.productSearchIndex).refresh(productId, 4);
+        reader.productCache.get(productId, this::loadVersion3);
+        assertThat(loads).as("the cached copy was dropped").hasValue(2);
+        assertThat(received(reader, "applied")).isEqualTo(1);
+    }
+
+    @Test
+    void lateUpdateKeepsTheFresherCopyButStillEvictsListings() {
+        writer.broadcaster.publishUpdate(productId, 3, BEFORE, AFTER);
+
+        reader.broadcaster.onInvalidation(writer.lastPayload());
+
+        verify(reader.productListingCache).invalidate(BEFORE, AFTER);
+        reader.productCache.get(productId, this::loadVersion3);
+        assertThat(loads).hasValue(1);
+        assertThat(received(reader, "ignored")).isEqualTo(1);
+    }
+
+    @Test
+    void deleteRemovesTheProductEverywhere() {
+        writer.broadcaster.publishDelete(productId, BEFORE);
+
+        reader.broadcaster.onInvalidation(writer.lastPayload());
+
+        verify(reader.productListingCache).invalidate(BEFORE, null);
+        verify(reader.productSearchIndex).remove(productId);
+        verify(reader.productSearchIndex, never()).refresh(any(), anyLong());
+        reader.productCache.get(productId, this::loadVersion3);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void failedIndexReloadStillCountsAsApplied() {
+        doThrow(new IllegalStateException("database unavailable"))
+                .when(reader.productSearchIndex).refresh(productId, 4);
+        writer.broadcaster.publishUpdate(productId, 4, BEFORE, AFTER);
+
+        reader.broadcaster.onInvalidation(writer.lastPayload());
+
+        assertThat(received(reader, "applied")).isEqualTo(1);
+    }
+
+    @Test
+    void unreadableMessagesAreSkipped() {
+        reader.broadcaster.onInvalidation("{not json");
+
+        verifyNoInteractions(reader.productListingCache, reader.productSearchIndex);
+    }
+
+    private Optional<Product> loadVersion3(UUID id) {
+        loads.incrementAndGet();
+        return Optional.of(Product.builder().id(id).version(3L).build());
+    }
+
+    private static double received(Replica replica, String outcome) {
+        return replica.meterRegistry.get("products.invalidation.received").tag("outcome", outcome).counter().count();
+    }
+
+    private class Replica {
+
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final ProductCache productCache = new ProductCache(meterRegistry, 100, 60);
+        final ProductListingCache productListingCache = mock(ProductListingCache.class);
+        final ProductSearchIndex productSearchIndex = mock(ProductSearchIndex.class);
+        final KafkaTemplate<String, String> kafkaTemplate = mock();
+        final ProductInvalidationBroadcaster broadcaster;
+
+        Replica() {
+            when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenReturn(new CompletableFuture<>());
+            broadcaster = new ProductInvalidationBroadcaster(kafkaTemplate, objectMapper, productCache,
+                    productListingCache, productSearchIndex, meterRegistry);
+        }
+
+        String lastPayload() {
+            ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+            verify(kafkaTemplate).send(eq(KafkaTopics.PRODUCT_INVALIDATIONS), eq(productId.toString()), payload.capture());
+            return payload.getValue();
+        }
+    }
+}
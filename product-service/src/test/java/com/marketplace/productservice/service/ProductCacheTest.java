@@ -0,0 +1,75 @@
+package com.marketplace.productservice.service;
+
+import com.marketplace.productservice.entity.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCacheTest {
+
+    private final ProductCache cache = new ProductCache(new SimpleMeterRegistry(), 100, 60);
+    private final UUID productId = UUID.randomUUID();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void loadsOnceAndServesFromTheCacheAfterwards() {
+        cache.get(productId, this::load);
+        Optional<Product> cached = cache.get(productId, this::load);
+
+        assertThat(cached).map(Product::getVersion).contains(3L);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void productsThatDoNotExistAreNotCached() {
+        cache.get(productId, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        cache.get(productId, this::load);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void olderVersionDropsTheCachedCopy() {
+        cache.get(productId, this::load);
+
+        assertThat(cache.invalidate(productId, 4)).isTrue();
+        cache.get(productId, this::load);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void sameOrOlderVersionKeepsTheCachedCopy() {
+        cache.get(productId, this::load);
+
+        // A late or duplicated message must not evict a copy that already has the change
+        assertThat(cache.invalidate(productId, 3)).isFalse();
+        assertThat(cache.invalidate(productId, 2)).isFalse();
+        cache.get(productId, this::load);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void copyWithoutVersionIsAlwaysDropped() {
+        cache.get(productId, id -> Optional.of(Product.builder().id(id).build()));
+
+        assertThat(cache.invalidate(productId, 0)).isTrue();
+    }
+
+    @Test
+    void nothingIsDroppedWhenTheProductIsNotCached() {
+        assertThat(cache.invalidate(productId, 4)).isFalse();
+    }
+
+    private Optional<Product> load(UUID id) {
+        loads.incrementAndGet();
+        return Optional.of(Product.builder().id(id).version(3L).build());
+    }
+}
@@ -0,0 +1,92 @@
+package com.marketplace.productservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductFacetCountsTest {
+
+    private static final List<BigDecimal> BUCKETS = List.of(price("0"), price("50"), price("100"));
+
+    private final ProductFacetCounts facets = new ProductFacetCounts();
+
+    @BeforeEach
+    void setUp() {
+        facets.add("books", price("10"), true);
+        facets.add("books", price("60"), true);
+        facets.add("books", price("60"), false);
+        facets.add("games", price("40"), true);
+        facets.add("games", price("150"), false);
+        facets.add(null, price("20"), true);
+        facets.add("books", null, true);
+    }
+
+    @Test
+    void withoutFiltersCountsEverything() {
+        ProductFacetCounts.Result result = facets.count(null, null, null, null, BUCKETS);
+
+        assertThat(result.categories()).isEqualTo(Map.of("books", 4L, "games", 2L));
+        // Products without a price are in the total but in no bucket
+        assertThat(result.priceBuckets()).containsExactly(3L, 2L, 1L);
+        assertThat(result.total()).isEqualTo(7);
+    }
+
+    @Test
+    void categoryCountsIgnoreTheCategoryFilter() {
+        ProductFacetCounts.Result result = facets.count("books", null, null, null, BUCKETS);
+
+        assertThat(result.categories()).isEqualTo(Map.of("books", 4L, "games", 2L));
+        assertThat(result.priceBuckets()).containsExactly(1L, 2L, 0L);
+        assertThat(result.total()).isEqualTo(4);
+    }
+
+    @Test
+    void priceBucketsIgnoreThePriceRange() {
+        ProductFacetCounts.Result result = facets.count(null, null, price("30"), price("60"), BUCKETS);
+
+        assertThat(result.categories()).isEqualTo(Map.of("books", 2L, "games", 1L));
+        assertThat(result.priceBuckets()).containsExactly(3L, 2L, 1L);
+        assertThat(result.total()).isEqualTo(3);
+    }
+
+    @Test
+    void stockFilterAppliesToEveryFacet() {
+        ProductFacetCounts.Result result = facets.count("games", true, price("0"), null, BUCKETS);
+
+        assertThat(result.categories()).isEqualTo(Map.of("books", 2L, "games", 1L));
+        assertThat(result.priceBuckets()).containsExactly(1L, 0L, 0L);
+        assertThat(result.total()).isEqualTo(1);
+
+        ProductFacetCounts.Result outOfStock = facets.count(null, false, null, null, BUCKETS);
+        assertThat(outOfStock.categories()).isEqualTo(Map.of("books", 1L, "games", 1L));
+        assertThat(outOfStock.priceBuckets()).containsExactly(0L, 1L, 1L);
+    }
+
+    @Test
+    void bucketBoundsAreInclusiveBelowAndExclusiveAbove() {
+        ProductFacetCounts.Result result = facets.count(null, null, null, null, List.of(price("10"), price("60")));
+
+        assertThat(result.priceBuckets()).containsExactly(3L, 3L);
+    }
+
+    @Test
+    void removedProductsAreNoLongerCounted() {
+        facets.remove("games", price("40"), true);
+        facets.remove("games", price("150"), false);
+
+        ProductFacetCounts.Result result = facets.count(null, null, null, null, BUCKETS);
+
+        assertThat(result.categories()).isEqualTo(Map.of("books", 4L));
+        assertThat(result.priceBuckets()).containsExactly(2L, 2L, 0L);
+        assertThat(result.total()).isEqualTo(5);
+    }
+
+    private static BigDecimal price(String value) {
+        return new BigDecimal(value);
+    }
+}
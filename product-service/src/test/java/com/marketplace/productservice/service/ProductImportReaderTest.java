@@ -0,0 +1,139 @@
+package com.marketplace.productservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductImportReaderTest {
+
+    @Test
+    void splitsRecordsIntoFields() throws Exception {
+        ProductImportReader reader = reader("name,price,quantity\nMug,9.90,3\n");
+
+        assertThat(reader.nextCsvRecord()).containsExactly("name", "price", "quantity");
+        assertThat(reader.nextCsvRecord()).containsExactly("Mug", "9.90", "3");
+        assertThat(reader.nextCsvRecord()).isNull();
+    }
+
+    @Test
+    void keepsEmptyFields() throws Exception {
+        ProductImportReader reader = reader("Mug,,3,\n");
+
+        assertThat(reader.nextCsvRecord()).containsExactly("Mug", "", "3", "");
+    }
+
+    @Test
+    void readsTheLastRecordWithoutALineBreak() throws Exception {
+        ProductImportReader reader = reader("Mug,9.90");
+
+        assertThat(reader.nextCsvRecord()).containsExactly("Mug", "9.90");
+        assertThat(reader.nextCsvRecord()).isNull();
+    }
+
+    @Test
+    void dropsCarriageReturnsOfWindowsLineBreaks() throws Exception {
+        ProductImportReader reader = reader("Mug,9.90\r\nCup,4.50\r\n");
+
+        assertThat(reader.nextCsvRecord()).containsExactly("Mug", "9.90");
+        assertThat(reader.nextCsvRecord()).containsExactly("Cup", "4.50");
+    }
+
+    @Test
+    void quotedFieldsMayHoldSeparators() throws Exception {
+        ProductImportReader reader = reader("\"Mug, large\",\"9.90\"\n");
+
+        assertThat(reader.nextCsvRecord()).containsExactly("Mug, large", "9.90");
+    }
+
+    @Test
+    void doubledQuotesAreALiteralQuote() throws Exception {
+        ProductImportReader reader = reader("\"The \"\"best\"\" mug\",\"\"\"\"\n");
+
+        assertThat(reader.nextCsvRecord()).containsExactly("The \"best\" mug", "\"");
+    }
+
+    @Test
+    void quotesInsideAnUnquotedFieldAreKept() throws Exception {
+        ProductImportReader reader = reader("12\" pizza,9.90\n");
+
+        assertThat(reader.nextCsvRecord()).containsExactly("12\" pizza", "9.90");
+    }
+
+    @Test
+    void quotedFieldsMaySpanLines() throws Exception {
+        ProductImportReader reader = reader("Mug,\"Blue\r\nceramic\n\"\nCup,White\n");
+
+        assertThat(reader.nextCsvRecord()).containsExactly("Mug", "Blue\r\nceramic\n");
+        assertThat(reader.recordLine()).isEqualTo(1);
+        assertThat(reader.nextCsvRecord()).containsExactly("Cup", "White");
+        // The next record starts after the lines the quoted field spanned
+        assertThat(reader.recordLine()).isEqualTo(4);
+    }
+
+    @Test
+    void unclosedQuoteIsReportedAtTheEndOfTheUpload() throws Exception {
+        ProductImportReader reader = reader("Mug,9.90\nCup,\"White\n4.50\n");
+
+        assertThat(reader.nextCsvRecord()).containsExactly("Mug", "9.90");
+        assertThatThrownBy(reader::nextCsvRecord)
+                .isInstanceOf(ProductImportReader.MalformedRecordException.class)
+                .hasMessageContaining("not closed");
+        assertThat(reader.recordLine()).isEqualTo(2);
+        assertThat(reader.nextCsvRecord()).isNull();
+    }
+
+    @Test
+    void csvRecordOfTheMaximumLengthIsAccepted() throws Exception {
+        ProductImportReader reader = new ProductImportReader(new StringReader("abcd,fgh\r\nabcd,fghi\n"), 8);
+
+        assertThat(reader.nextCsvRecord()).containsExactly("abcd", "fgh");
+        assertThatThrownBy(reader::nextCsvRecord)
+                .isInstanceOf(ProductImportReader.MalformedRecordException.class)
+                .hasMessage("Row is longer than 8 characters");
+    }
+
+    @Test
+    void csvRecordOverTheLimitIsSkippedAndReadingGoesOn() throws Exception {
+        String longDescription = "x".repeat(100);
+        ProductImportReader reader = new ProductImportReader(new StringReader(
+                "Mug,\"" + longDescription + "\n" + longDescription + "\"\nCup,4.50\n"), 20);
+
+        assertThatThrownBy(reader::nextCsvRecord)
+                .isInstanceOf(ProductImportReader.MalformedRecordException.class)
+                .hasMessage("Row is longer than 20 characters");
+        assertThat(reader.recordLine()).isEqualTo(1);
+        assertThat(reader.nextCsvRecord()).containsExactly("Cup", "4.50");
+        assertThat(reader.recordLine()).isEqualTo(3);
+    }
+
+    @Test
+    void readsPlainLines() throws Exception {
+        ProductImportReader reader = reader("{\"name\":\"Mug\"}\r\n\n{\"name\":\"Cup\"}");
+
+        assertThat(reader.nextLine()).isEqualTo("{\"name\":\"Mug\"}");
+        assertThat(reader.recordLine()).isEqualTo(1);
+        assertThat(reader.nextLine()).isEmpty();
+        assertThat(reader.nextLine()).isEqualTo("{\"name\":\"Cup\"}");
+        assertThat(reader.recordLine()).isEqualTo(3);
+        assertThat(reader.nextLine()).isNull();
+    }
+
+    @Test
+    void lineOverTheLimitIsSkippedAndReadingGoesOn() throws Exception {
+        ProductImportReader reader = new ProductImportReader(new StringReader("12345678\n123456789\nshort\n"), 8);
+
+        assertThat(reader.nextLine()).isEqualTo("12345678");
+        assertThatThrownBy(reader::nextLine)
+                .isInstanceOf(ProductImportReader.MalformedRecordException.class)
+                .hasMessage("Row is longer than 8 characters");
+        assertThat(reader.nextLine()).isEqualTo("short");
+        assertThat(reader.recordLine()).isEqualTo(3);
+    }
+
+    private static ProductImportReader reader(String content) {
+        return new ProductImportReader(new StringReader(content), 1000);
+    }
+}
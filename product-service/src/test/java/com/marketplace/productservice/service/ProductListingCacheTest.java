@@ -0,0 +1,179 @@
+package com.marketplace.productservice.service;
+
+import com.marketplace.productservice.controller.dto.ProductFilterCriteria;
+import com.marketplace.productservice.entity.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+class ProductListingCacheTest {
+
+    private static final ProductFilterCriteria NO_FILTERS = new ProductFilterCriteria(null, null, null, null);
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20);
+    private static final ProductListingCache.Snapshot MUG =
+            new ProductListingCache.Snapshot("kitchen", new BigDecimal("9.90"), 3);
+
+    private final ProductListingCache cache = new ProductListingCache(new SimpleMeterRegistry(), 1 << 20, 60, 100);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    /**
+     * The same cases as the WHERE clause built by ProductSpecification.findByCriteria: a listing must be
+     * evicted exactly when the product would be part of its query result.
+     */
+    static Stream<Arguments> filterCases() {
+        return Stream.of(
+                arguments(NO_FILTERS, snapshot(null, null, null), true),
+                arguments(filters("kitchen", null, null, null), snapshot("kitchen", "9.90", 3), true),
+                arguments(filters("kitchen", null, null, null), snapshot("garden", "9.90", 3), false),
+                arguments(filters("kitchen", null, null, null), snapshot(null, "9.90", 3), false),
+                // A blank category is not a filter
+                arguments(filters("  ", null, null, null), snapshot("garden", "9.90", 3), true),
+                arguments(filters(null, true, null, null), snapshot("kitchen", "9.90", 3), true),
+                arguments(filters(null, true, null, null), snapshot("kitchen", "9.90", 0), false),
+                arguments(filters(null, true, null, null), snapshot("kitchen", "9.90", null), false),
+                arguments(filters(null, false, null, null), snapshot("kitchen", "9.90", 0), true),
+                arguments(filters(null, false, null, null), snapshot("kitchen", "9.90", 3), false),
+                arguments(filters(null, false, null, null), snapshot("kitchen", "9.90", null), false),
+                arguments(filters(null, null, "9.90", null), snapshot("kitchen", "9.90", 3), true),
+                arguments(filters(null, null, "9.91", null), snapshot("kitchen", "9.90", 3), false),
+                arguments(filters(null, null, "1", null), snapshot("kitchen", null, 3), false),
+                arguments(filters(null, null, null, "9.9"), snapshot("kitchen", "9.90", 3), true),
+                arguments(filters(null, null, null, "9.89"), snapshot("kitchen", "9.90", 3), false),
+                arguments(filters(null, null, null, "100"), snapshot("kitchen", null, 3), false),
+                arguments(filters("kitchen", true, "5", "10"), snapshot("kitchen", "9.90", 3), true),
+                arguments(filters("kitchen", true, "5", "10"), snapshot("kitchen", "9.90", 0), false),
+                arguments(filters("kitchen", true, "5", "10"), snapshot("kitchen", "10.50", 3), false)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("filterCases")
+    void productBeforeTheChangeEvictsTheListingsItWasIn(ProductFilterCriteria filters,
+                                                       ProductListingCache.Snapshot product, boolean matches) {
+        assertThat(evicts(filters, product, null)).isEqualTo(matches);
+    }
+
+    @ParameterizedTest
+    @MethodSource("filterCases")
+    void productAfterTheChangeEvictsTheListingsItIsNowIn(ProductFilterCriteria filters,
+                                                        ProductListingCache.Snapshot product, boolean matches) {
+        assertThat(evicts(filters, null, product)).isEqualTo(matches);
+    }
+
+    @Test
+    void productMovingBetweenListingsEvictsBoth() {
+        ProductFilterCriteria inStock = filters(null, true, null, null);
+        ProductFilterCriteria soldOut = filters(null, false, null, null);
+        ProductListingCache.Snapshot lastOneSold = snapshot("kitchen", "9.90", 0);
+
+        assertThat(evicts(inStock, MUG, lastOneSold)).isTrue();
+        assertThat(evicts(soldOut, MUG, lastOneSold)).isTrue();
+        assertThat(evicts(filters("garden", null, null, null), MUG, lastOneSold)).isFalse();
+    }
+
+    @Test
+    void everyPageOfAMatchingListingIsEvictedAndOtherListingsAreKept() {
+        ProductFilterCriteria kitchen = filters("kitchen", null, null, null);
+        ProductFilterCriteria garden = filters("garden", null, null, null);
+        cache.get(kitchen, FIRST_PAGE, this::load);
+        cache.get(kitchen, PageRequest.of(1, 20), this::load);
+        cache.get(garden, FIRST_PAGE, this::load);
+
+        cache.invalidate(MUG, MUG);
+        cache.get(kitchen, FIRST_PAGE, this::load);
+        cache.get(kitchen, PageRequest.of(1, 20), this::load);
+        cache.get(garden, FIRST_PAGE, this::load);
+
+        assertThat(loads).hasValue(5);
+    }
+
+    @Test
+    void equalPricesWithDifferentScalesShareAnEntry() {
+        cache.get(filters(null, null, "50", null), FIRST_PAGE, this::load);
+        cache.get(filters(null, null, "50.00", null), FIRST_PAGE, this::load);
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void loadThatRacesAnInvalidationIsServedButNotKept() {
+        Page<Product> stale = cache.get(NO_FILTERS, FIRST_PAGE, () -> {
+            // The product changes while the page is being read from the database
+            cache.invalidate(MUG, MUG);
+            return load();
+        });
+
+        assertThat(stale).isNotNull();
+        cache.get(NO_FILTERS, FIRST_PAGE, this::load);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void loadThatRacesAFullInvalidationIsNotKept() {
+        cache.get(NO_FILTERS, FIRST_PAGE, () -> {
+            cache.invalidateAll();
+            return load();
+        });
+
+        cache.get(NO_FILTERS, FIRST_PAGE, this::load);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void loadAfterAnInvalidationIsKept() {
+        cache.invalidate(MUG, MUG);
+
+        cache.get(NO_FILTERS, FIRST_PAGE, this::load);
+        cache.get(NO_FILTERS, FIRST_PAGE, this::load);
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void unpagedAndOversizedRequestsBypassTheCache() {
+        cache.get(NO_FILTERS, Pageable.unpaged(), this::load);
+        cache.get(NO_FILTERS, Pageable.unpaged(), this::load);
+        cache.get(NO_FILTERS, PageRequest.of(0, 101), this::load);
+        cache.get(NO_FILTERS, PageRequest.of(0, 101), this::load);
+
+        assertThat(loads).hasValue(4);
+    }
+
+    private boolean evicts(ProductFilterCriteria filters, ProductListingCache.Snapshot previous,
+                           ProductListingCache.Snapshot current) {
+        cache.get(filters, FIRST_PAGE, this::load);
+        int loadsBefore = loads.get();
+
+        cache.invalidate(previous, current);
+        cache.get(filters, FIRST_PAGE, this::load);
+        return loads.get() > loadsBefore;
+    }
+
+    private Page<Product> load() {
+        loads.incrementAndGet();
+        return new PageImpl<>(List.of(Product.builder().name("Mug").sellerId("seller").build()));
+    }
+
+    private static ProductFilterCriteria filters(String category, Boolean inStock, String minPrice, String maxPrice) {
+        return new ProductFilterCriteria(category, inStock, minPrice == null ? null : new BigDecimal(minPrice),
+                maxPrice == null ? null : new BigDecimal(maxPrice));
+    }
+
+    private static ProductListingCache.Snapshot snapshot(String category, String price, Integer quantity) {
+        return new ProductListingCache.Snapshot(category, price == null ? null : new BigDecimal(price), quantity);
+    }
+}
@@ -0,0 +1,243 @@
+package com.marketplace.productservice.service;
+
+import com.marketplace.productservice.controller.dto.ProductFilterCriteria;
+import com.marketplace.productservice.entity.Product;
+import com.marketplace.productservice.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductSearchIndexTest {
+
+    private static final ProductFilterCriteria NO_FILTERS = new ProductFilterCriteria(null, null, null, null);
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 10);
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(productRepository, new SimpleMeterRegistry(), 2, false,
+                new BigDecimal[]{BigDecimal.ZERO});
+    }
+
+    @Test
+    void tokenizeLowerCasesStripsAccentsAndSplitsOnPunctuation() {
+        assertThat(ProductSearchIndex.tokenize("Caf\u00e9-Cr\u00e8me, 2x  \u00c9T\u00c9!")).containsExactly("cafe", "creme", "2x", "ete");
+        assertThat(ProductSearchIndex.tokenize("  ")).isEmpty();
+        assertThat(ProductSearchIndex.tokenize(null)).isEmpty();
+    }
+
+    @Test
+    void everyQueryTermMustMatch() {
+        Product red = index(product("Red wool scarf", "Warm"));
+        index(product("Blue wool scarf", "Warm"));
+
+        assertThat(search("red scarf").ids()).containsExactly(red.getId());
+        assertThat(search("green scarf").total()).isZero();
+    }
+
+    @Test
+    void nameMatchesOutrankDescriptionMatches() {
+        Product inDescription = index(product("Winter scarf", "Made of merino wool"));
+        Product inName = index(product("Merino scarf", "Keeps you warm in winter"));
+
+        assertThat(search("merino").ids()).containsExactly(inName.getId(), inDescription.getId());
+    }
+
+    @Test
+    void rareTermsWeighMoreThanCommonOnes() {
+        Product mostlyShirt = index(product("Wool shirt", "Shirt shirt"));
+        Product mostlyWool = index(product("Wool shirt", "Wool wool"));
+        index(product("Cotton shirt", "Plain"));
+        index(product("Linen shirt", "Plain"));
+
+        // Same length, mirrored frequencies: "shirt" is in every product, so the extra "wool" hits decide
+        assertThat(search("shirt wool").ids()).containsExactly(mostlyWool.getId(), mostlyShirt.getId());
+    }
+
+    @Test
+    void frequentTermsRankHigher() {
+        Product once = index(product("Mug", "Blue glaze"));
+        Product twice = index(product("Blue mug", "Blue glaze"));
+
+        assertThat(search("blue").ids()).containsExactly(twice.getId(), once.getId());
+    }
+
+    @Test
+    void lastTermAlsoMatchesAsPrefix() {
+        Product exact = index(product("Lamp", "Desk lamp"));
+        Product expansion = index(product("Lampshade", "Linen lampshade"));
+
+        assertThat(search("lamp").ids()).containsExactly(exact.getId(), expansion.getId());
+        assertThat(search("lam").ids()).containsExactlyInAnyOrder(exact.getId(), expansion.getId());
+        // Only the last term is expanded
+        assertThat(search("lam desk").total()).isZero();
+        // A single character is too short to expand
+        assertThat(search("l").total()).isZero();
+    }
+
+    @Test
+    void filtersAreCombined() {
+        Product match = index(product("Oak table", "Solid", "furniture", "150.00", 3));
+        index(product("Oak table", "Solid", "furniture", "150.00", 0));
+        index(product("Oak table", "Solid", "garden", "150.00", 3));
+        index(product("Oak table", "Solid", "furniture", "400.00", 3));
+        index(product("Oak table", "Solid", "furniture", "50.00", 3));
+
+        ProductFilterCriteria filters = new ProductFilterCriteria("furniture", true,
+                new BigDecimal("100.00"), new BigDecimal("200.00"));
+        ProductSearchIndex.SearchResult result = index.search("oak", filters, FIRST_PAGE);
+
+        assertThat(result.ids()).containsExactly(match.getId());
+        assertThat(result.total()).isEqualTo(1);
+    }
+
+    @Test
+    void pagesAreStableAndReportTheTotal() {
+        for (int i = 0; i < 5; i++) {
+            index(product("Candle", "Wax"));
+        }
+
+        List<UUID> all = search("candle").ids();
+        ProductSearchIndex.SearchResult second = index.search("candle", NO_FILTERS, PageRequest.of(1, 2));
+
+        assertThat(second.ids()).containsExactlyElementsOf(all.subList(2, 4));
+        assertThat(second.total()).isEqualTo(5);
+    }
+
+    @Test
+    void olderVersionDoesNotReplaceANewerOne() {
+        Product newer = product("Blue mug", "Ceramic");
+        newer.setVersion(2L);
+        index.index(newer);
+
+        Product older = copy(newer, "Red mug");
+        older.setVersion(1L);
+        index.index(older);
+
+        assertThat(search("blue").ids()).containsExactly(newer.getId());
+        assertThat(search("red").total()).isZero();
+    }
+
+    @Test
+    void refreshSkipsTheDatabaseWhenTheIndexedCopyIsCurrent() {
+        Product product = product("Blue mug", "Ceramic");
+        product.setVersion(3L);
+        index.index(product);
+
+        index.refresh(product.getId(), 3);
+
+        verify(productRepository, never()).findById(any());
+    }
+
+    @Test
+    void writeDuringRebuildWinsOverTheBatchReadBeforeIt() {
+        Product stale = product("Red mug", "Ceramic");
+        stale.setVersion(1L);
+        Product fresh = copy(stale, "Blue mug");
+        fresh.setVersion(2L);
+
+        // The batch is read, then the product is updated before the rebuild applies the batch
+        when(productRepository.findByIdGreaterThanOrderById(any(), any())).thenAnswer(invocation -> {
+            index.index(fresh);
+            return List.of(stale);
+        });
+
+        assertThat(index.rebuild()).isEqualTo(1);
+        assertThat(search("blue").ids()).containsExactly(fresh.getId());
+        assertThat(search("red").total()).isZero();
+    }
+
+    @Test
+    void deleteDuringRebuildIsNotUndoneByTheBatchReadBeforeIt() {
+        Product kept = product("Blue mug", "Ceramic");
+        Product deleted = product("Blue cup", "Ceramic");
+
+        when(productRepository.findByIdGreaterThanOrderById(any(), any())).thenAnswer(invocation -> {
+            index.remove(deleted.getId());
+            return List.of(kept, deleted);
+        }).thenReturn(List.of());
+
+        assertThat(index.rebuild()).isEqualTo(1);
+        assertThat(search("blue").ids()).containsExactly(kept.getId());
+    }
+
+    @Test
+    void rebuildPagesThroughTheTableByKey() {
+        Product first = product("Blue mug", "Ceramic");
+        Product second = product("Blue cup", "Ceramic");
+        Product third = product("Blue bowl", "Ceramic");
+        UUID lowest = new UUID(0, 0);
+
+        when(productRepository.findByIdGreaterThanOrderById(eq(lowest), any())).thenReturn(List.of(first, second));
+        when(productRepository.findByIdGreaterThanOrderById(eq(second.getId()), any())).thenReturn(List.of(third));
+
+        assertThat(index.rebuild()).isEqualTo(3);
+        assertThat(search("blue").total()).isEqualTo(3);
+    }
+
+    @Test
+    void refreshRemovesAProductThatNoLongerExists() {
+        Product product = index(product("Blue mug", "Ceramic"));
+        when(productRepository.findById(product.getId())).thenReturn(Optional.empty());
+
+        index.refresh(product.getId(), 1);
+
+        assertThat(search("blue").total()).isZero();
+    }
+
+    private Product index(Product product) {
+        index.index(product);
+        return product;
+    }
+
+    private ProductSearchIndex.SearchResult search(String query) {
+        return index.search(query, NO_FILTERS, FIRST_PAGE);
+    }
+
+    private static Product product(String name, String description) {
+        return product(name, description, "home", "10.00", 1);
+    }
+
+    private static Product product(String name, String description, String category, String price, int quantity) {
+        return Product.builder()
+                .id(UUID.randomUUID())
+                .name(name)
+                .description(description)
+                .category(category)
+                .price(new BigDecimal(price))
+                .quantity(quantity)
+                .sellerId("seller")
+                .version(0L)
+                .build();
+    }
+
+    private static Product copy(Product product, String name) {
+        return Product.builder()
+                .id(product.getId())
+                .name(name)
+                .description(product.getDescription())
+                .category(product.getCategory())
+                .price(product.getPrice())
+                .quantity(product.getQuantity())
+                .sellerId(product.getSellerId())
+                .version(product.getVersion())
+                .build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.marketplace.userservice.config;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * Decodificador que valida cada token distinto una sola vez.
+ * Las peticiones que repiten el token reciben el {@link Jwt} en caché hasta que expira.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final JwtTokenCache<Jwt> cache;
+
+    public CachingJwtDecoder(JwtDecoder delegate, JwtTokenCache<Jwt> cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        return cache.get(token, delegate::decode);
+    }
+}
@@ -0,0 +1,27 @@
+package com.marketplace.userservice.config;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Control de readiness para la verificación de tokens. La instancia queda fuera de servicio hasta que el
+ * JWK set se carga por primera vez, y sigue en UP con las últimas claves válidas si falla un refresco.
+ */
+@Component
+public class JwkSetHealthIndicator implements HealthIndicator {
+
+    private final JwkSetManager jwkSetManager;
+
+    public JwkSetHealthIndicator(JwkSetManager jwkSetManager) {
+        this.jwkSetManager = jwkSetManager;
+    }
+
+    @Override
+    public Health health() {
+        if (!jwkSetManager.isReady()) {
+            return Health.outOfService().withDetail("jwks", "not loaded").build();
+        }
+        return Health.up().withDetail("lastRefresh", jwkSetManager.getLastRefresh()).build();
+    }
+}
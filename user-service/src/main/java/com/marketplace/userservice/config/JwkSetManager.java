@@ -0,0 +1,193 @@
+package com.marketplace.userservice.config;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URL;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the Keycloak JWK set used to verify token signatures.
+ * <p>
+ * The keys are fetched while the context starts, before readiness turns UP, and refreshed in the
+ * background every {@code jwt.jwks.refresh-interval-ms}, so requests never wait on Keycloak for them.
+ * A failed refresh keeps serving the last good keys. A token signed with an unknown key id triggers a
+ * synchronous refetch, at most once per {@code jwt.jwks.unknown-kid-min-interval-ms}, to pick up an
+ * unannounced key rotation.
+ * <p>
+ * order-service, product-service and user-service each carry a copy of this class that differs only in
+ * its package. Changes must be made to all three.
+ */
+public class JwkSetManager implements JWKSource<SecurityContext>, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(JwkSetManager.class);
+
+    private static final int SIZE_LIMIT_BYTES = 50 * 1024;
+
+    private final URL jwkSetUrl;
+    private final int connectTimeoutMs;
+    private final int readTimeoutMs;
+    private final Duration refreshInterval;
+    private final Duration retryInterval;
+    private final Duration unknownKidMinInterval;
+    private final AtomicReference<JWKSet> keys = new AtomicReference<>();
+    private final Object fetchLock = new Object();
+    private final ScheduledExecutorService scheduler;
+    private final Counter refreshedCounter;
+    private final Counter failedCounter;
+    private volatile Instant lastAttempt = Instant.EPOCH;
+    private volatile Instant lastRefresh;
+
+    public JwkSetManager(URL jwkSetUrl, MeterRegistry meterRegistry, Duration connectTimeout, Duration readTimeout,
+                         Duration refreshInterval, Duration retryInterval, Duration unknownKidMinInterval) {
+        this.jwkSetUrl = jwkSetUrl;
+        this.connectTimeoutMs = (int) connectTimeout.toMillis();
+        this.readTimeoutMs = (int) readTimeout.toMillis();
+        this.refreshInterval = refreshInterval;
+        this.retryInterval = retryInterval;
+        this.unknownKidMinInterval = unknownKidMinInterval;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwks-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.refreshedCounter = Counter.builder("jwt.jwks.refresh")
+                .description("JWK set fetches from the identity provider")
+                .tag("outcome", "success")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("jwt.jwks.refresh")
+                .description("JWK set fetches from the identity provider")
+                .tag("outcome", "failure")
+                .register(meterRegistry);
+        Gauge.builder("jwt.jwks.age", this, manager -> manager.lastRefresh == null
+                        ? Double.NaN
+                        : Duration.between(manager.lastRefresh, Instant.now()).toMillis() / 1000.0)
+                .description("Seconds since the JWK set was last fetched successfully")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Fetches the keys, retrying until they load or {@code startupTimeout} passes, then schedules the
+     * background refresh. When the keys could not be loaded the instance still starts, reports itself
+     * out of service and keeps retrying in the background.
+     */
+    public void start(Duration startupTimeout) {
+        Instant deadline = Instant.now().plus(startupTimeout);
+        while (!isReady()) {
+            try {
+                refresh();
+            } catch (Exception e) {
+                if (Instant.now().plus(retryInterval).isAfter(deadline)) {
+                    log.warn("Could not load JWK set from {} during startup: {}", jwkSetUrl, e.getMessage());
+                    break;
+                }
+                sleep(retryInterval);
+            }
+        }
+        scheduleRefresh();
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) throws KeySourceException {
+        JWKSet current = keys.get();
+        if (current != null) {
+            List<JWK> matches = jwkSelector.select(current);
+            if (!matches.isEmpty()) {
+                return matches;
+            }
+        }
+        // Unknown key id, most likely a rotation that happened since the last refresh
+        JWKSet refreshed = refreshOnMiss(current);
+        return refreshed == null ? List.of() : jwkSelector.select(refreshed);
+    }
+
+    public boolean isReady() {
+        return keys.get() != null;
+    }
+
+    public Instant getLastRefresh() {
+        return lastRefresh;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private JWKSet refreshOnMiss(JWKSet seen) {
+        synchronized (fetchLock) {
+            JWKSet current = keys.get();
+            if (current != seen) {
+                // Another request already refetched while this one was waiting
+                return current;
+            }
+            if (Instant.now().isBefore(lastAttempt.plus(unknownKidMinInterval))) {
+                return current;
+            }
+            try {
+                return refresh();
+            } catch (Exception e) {
+                log.warn("Could not refetch JWK set from {} for an unknown key id: {}", jwkSetUrl, e.getMessage());
+                return current;
+            }
+        }
+    }
+
+    private JWKSet refresh() throws Exception {
+        synchronized (fetchLock) {
+            lastAttempt = Instant.now();
+            try {
+                JWKSet loaded = JWKSet.load(jwkSetUrl, connectTimeoutMs, readTimeoutMs, SIZE_LIMIT_BYTES);
+                keys.set(loaded);
+                lastRefresh = Instant.now();
+                refreshedCounter.increment();
+                log.debug("Loaded {} keys from {}", loaded.getKeys().size(), jwkSetUrl);
+                return loaded;
+            } catch (Exception e) {
+                failedCounter.increment();
+                throw e;
+            }
+        }
+    }
+
+    private void scheduleRefresh() {
+        if (scheduler.isShutdown()) {
+            return;
+        }
+        Duration delay = isReady() ? refreshInterval : retryInterval;
+        scheduler.schedule(() -> {
+            try {
+                refresh();
+            } catch (Exception e) {
+                log.warn("Could not refresh JWK set from {}, keeping the last good keys: {}", jwkSetUrl, e.getMessage());
+            } finally {
+                scheduleRefresh();
+            }
+        }, delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading the JWK set", e);
+        }
+    }
+}
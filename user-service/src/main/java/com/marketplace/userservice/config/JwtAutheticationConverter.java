@@ -1,5 +1,6 @@
 package com.marketplace.userservice.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
@@ -11,6 +12,8 @@ import org.springframework.security.oauth2.server.resource.authentication.JwtAut
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -19,6 +22,7 @@ import java.util.stream.Stream;
 
 /**
  * Conversor de JWT a token de autenticación de Spring Security.
+ * Las autoridades y el nombre principal se calculan una vez por token y se reutilizan hasta que expira.
  */
 @Component
 public class JwtAutheticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
@@ -39,6 +43,21 @@ public class JwtAutheticationConverter implements Converter<Jwt, AbstractAuthent
     @Value("${jwt.auth.converter.resource-id}")
     private String resourceId;
 
+    /**
+     * Autoridades y nombre principal ya calculados, indexados por el hash del token.
+     */
+    private final JwtTokenCache<ConvertedJwt> convertedTokens;
+
+    private record ConvertedJwt(Collection<GrantedAuthority> authorities, String principalName, Instant expiresAt) {
+    }
+
+    public JwtAutheticationConverter(MeterRegistry meterRegistry,
+                                     @Value("${jwt.cache.maximum-size:10000}") long maximumSize,
+                                     @Value("${jwt.cache.max-ttl-seconds:300}") long maxTtlSeconds) {
+        this.convertedTokens = new JwtTokenCache<>("jwt.converted", meterRegistry, maximumSize,
+                Duration.ofSeconds(maxTtlSeconds), ConvertedJwt::expiresAt);
+    }
+
     /**
      * Convierte un token JWT en un token de autenticación de Spring Security.
      * Combina las autoridades estándar con los roles específicos del recurso.
@@ -48,10 +67,14 @@ public class JwtAutheticationConverter implements Converter<Jwt, AbstractAuthent
      */
     @Override
     public AbstractAuthenticationToken convert(Jwt source) {
-        Collection<GrantedAuthority> authorities = Stream
-                .concat(jwtGrantedAuthoritiesConverter.convert(source).stream(), extractResourceRoles(source).stream())
-                .toList();
-        return new JwtAuthenticationToken(source, authorities, getPrincipalName(source));
+        ConvertedJwt converted = convertedTokens.get(source.getTokenValue(), token -> {
+            Collection<GrantedAuthority> authorities = Stream
+                    .concat(jwtGrantedAuthoritiesConverter.convert(source).stream(), extractResourceRoles(source).stream())
+                    .toList();
+            return new ConvertedJwt(authorities, getPrincipalName(source), source.getExpiresAt());
+        });
+        // Un token nuevo por petición: Spring Security le asigna los detalles de cada request
+        return new JwtAuthenticationToken(source, converted.authorities(), converted.principalName());
     }
 
     /**
@@ -0,0 +1,66 @@
+package com.marketplace.userservice.config;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.time.Duration;
+
+@Configuration
+public class JwtDecoderConfig {
+
+    /**
+     * Carga el JWK set antes de que la aplicación se declare lista y lo mantiene actualizado en segundo plano.
+     */
+    @Bean
+    public JwkSetManager jwkSetManager(MeterRegistry meterRegistry,
+                                       @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}") String jwkSetUri,
+                                       @Value("${jwt.jwks.connect-timeout-ms:2000}") long connectTimeoutMs,
+                                       @Value("${jwt.jwks.read-timeout-ms:2000}") long readTimeoutMs,
+                                       @Value("${jwt.jwks.refresh-interval-ms:300000}") long refreshIntervalMs,
+                                       @Value("${jwt.jwks.retry-interval-ms:5000}") long retryIntervalMs,
+                                       @Value("${jwt.jwks.unknown-kid-min-interval-ms:30000}") long unknownKidMinIntervalMs,
+                                       @Value("${jwt.jwks.startup-timeout-ms:10000}") long startupTimeoutMs)
+            throws MalformedURLException {
+        JwkSetManager jwkSetManager = new JwkSetManager(URI.create(jwkSetUri).toURL(), meterRegistry,
+                Duration.ofMillis(connectTimeoutMs), Duration.ofMillis(readTimeoutMs),
+                Duration.ofMillis(refreshIntervalMs), Duration.ofMillis(retryIntervalMs),
+                Duration.ofMillis(unknownKidMinIntervalMs));
+        jwkSetManager.start(Duration.ofMillis(startupTimeoutMs));
+        return jwkSetManager;
+    }
+
+    /**
+     * Verifica firmas RS256 contra el JWK set gestionado y valida los claims igual que Spring Boot a partir
+     * de las propiedades del resource server. Los tokens validados se guardan en caché.
+     */
+    @Bean
+    public JwtDecoder jwtDecoder(JwkSetManager jwkSetManager, MeterRegistry meterRegistry,
+                                 @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuerUri,
+                                 @Value("${jwt.cache.maximum-size:10000}") long maximumSize,
+                                 @Value("${jwt.cache.max-ttl-seconds:300}") long maxTtlSeconds) {
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSetManager));
+        // Los claims los comprueban los validadores de Spring
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(jwtProcessor);
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+
+        JwtTokenCache<Jwt> cache = new JwtTokenCache<>("jwt.decoded", meterRegistry, maximumSize,
+                Duration.ofSeconds(maxTtlSeconds), Jwt::getExpiresAt);
+        return new CachingJwtDecoder(decoder, cache);
+    }
+}